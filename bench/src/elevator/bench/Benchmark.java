@@ -0,0 +1,36 @@
+package elevator.bench;
+
+import java.util.Map;
+
+/**
+ * Benchmark measured by the benchmark runner
+ *
+ * The runner creates a new instance for every parameter combination, calls
+ * setUp before every iteration and then times a fixed amount of operations.
+ */
+public abstract class Benchmark {
+
+    /**
+     * Prepares a single iteration, not included in the measurement
+     *
+     * @param params Parameters
+     * @param operations Operations in the iteration
+     * @throws Exception On failure
+     */
+    public void setUp(Map<String, Integer> params, int operations) throws Exception {
+    }
+
+    /**
+     * Runs a single operation
+     *
+     * @throws Exception On failure
+     */
+    public abstract void run() throws Exception;
+
+    /**
+     * Cleans up after an iteration, not included in the measurement
+     */
+    public void tearDown() {
+    }
+
+}
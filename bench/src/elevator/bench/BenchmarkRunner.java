@@ -0,0 +1,200 @@
+package elevator.bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs parameterized benchmarks and writes the results as JSON
+ *
+ * This is a plain timing loop, not JMH: every benchmark runs in the same JVM
+ * one after the other, without forks, blackholes or per-invocation timing,
+ * so the JIT profile of one benchmark can affect the next and an operation
+ * whose result is unused may be optimized away. The results are for
+ * comparing runs of the same suite on the same machine.
+ */
+public class BenchmarkRunner {
+
+    private static class Result {
+
+        private final String name;
+        private final Map<String, Integer> params;
+        private final double[] nsPerOp;
+
+        private double mean() {
+            double sum = 0;
+
+            for (double v : nsPerOp) {
+                sum += v;
+            }
+
+            return sum / nsPerOp.length;
+        }
+
+        private double stddev() {
+            double mean = mean(), sum = 0;
+
+            for (double v : nsPerOp) {
+                sum += (v - mean) * (v - mean);
+            }
+
+            return Math.sqrt(sum / nsPerOp.length);
+        }
+
+        private double min() {
+            double min = Double.MAX_VALUE;
+
+            for (double v : nsPerOp) {
+                min = Math.min(min, v);
+            }
+
+            return min;
+        }
+
+        public Result(String name, Map<String, Integer> params, double[] nsPerOp) {
+            this.name = name;
+            this.params = params;
+            this.nsPerOp = nsPerOp;
+        }
+
+    }
+
+    private final List<Result> results = new ArrayList<>();
+
+    private int warmupIterations = 5;
+    private int measureIterations = 10;
+
+    /**
+     * Expands a parameter grid into every combination
+     *
+     * @param grid Parameter grid
+     * @return Parameter combinations
+     */
+    private static List<Map<String, Integer>> combinations(Map<String, int[]> grid) {
+        List<Map<String, Integer>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<String, Integer>());
+
+        for (Map.Entry<String, int[]> entry : grid.entrySet()) {
+            List<Map<String, Integer>> expanded = new ArrayList<>();
+
+            for (Map<String, Integer> combination : combinations) {
+                for (int value : entry.getValue()) {
+                    Map<String, Integer> params = new LinkedHashMap<>(combination);
+                    params.put(entry.getKey(), value);
+                    expanded.add(params);
+                }
+            }
+
+            combinations = expanded;
+        }
+
+        return combinations;
+    }
+
+    /**
+     * Times a single iteration
+     *
+     * @param benchmark Benchmark
+     * @param params Parameters
+     * @param operations Operations
+     * @return Nanoseconds per operation
+     * @throws Exception On failure
+     */
+    private static double iterate(Benchmark benchmark, Map<String, Integer> params, int operations) throws Exception {
+        benchmark.setUp(params, operations);
+
+        try {
+            long start = System.nanoTime();
+
+            for (int i = 0; i < operations; i++) {
+                benchmark.run();
+            }
+
+            return (double) (System.nanoTime() - start) / operations;
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    /**
+     * Runs a benchmark for every combination of the parameter grid
+     *
+     * @param name Benchmark name
+     * @param factory Creates the benchmark
+     * @param grid Parameter grid
+     * @param operations Operations per iteration
+     * @throws Exception On failure
+     */
+    public void run(String name, Supplier<? extends Benchmark> factory,
+            Map<String, int[]> grid, int operations) throws Exception {
+        for (Map<String, Integer> params : combinations(grid)) {
+            Benchmark benchmark = factory.get();
+            double[] nsPerOp = new double[measureIterations];
+
+            for (int i = 0; i < warmupIterations; i++) {
+                iterate(benchmark, params, operations);
+            }
+
+            for (int i = 0; i < measureIterations; i++) {
+                nsPerOp[i] = iterate(benchmark, params, operations);
+            }
+
+            Result result = new Result(name, params, nsPerOp);
+            results.add(result);
+
+            System.out.printf("%-32s %-40s %14.1f ns/op (+- %.1f)%n",
+                    name, params, result.mean(), result.stddev());
+        }
+    }
+
+    /**
+     * Writes the results as JSON
+     *
+     * @param path Output file
+     * @throws IOException On failure
+     */
+    public void writeJson(Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            out.println("[");
+
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+
+                out.printf("  {\"benchmark\": \"%s\", \"params\": {", result.name);
+
+                int j = 0;
+
+                for (Map.Entry<String, Integer> param : result.params.entrySet()) {
+                    out.printf("%s\"%s\": %d", j++ > 0 ? ", " : "", param.getKey(), param.getValue());
+                }
+
+                out.printf(Locale.ROOT,
+                        "}, \"unit\": \"ns/op\", \"mean\": %.3f, \"stddev\": %.3f, \"min\": %.3f, \"iterations\": %d}%s%n",
+                        result.mean(), result.stddev(), result.min(), result.nsPerOp.length,
+                        i < results.size() - 1 ? "," : "");
+            }
+
+            out.println("]");
+        }
+    }
+
+    /**
+     * Sets the amount of iterations
+     *
+     * @param warmup Warmup iterations
+     * @param measure Measured iterations
+     */
+    public void setIterations(int warmup, int measure) {
+        this.warmupIterations = warmup;
+        this.measureIterations = measure;
+    }
+
+}
@@ -0,0 +1,59 @@
+package elevator.bench;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+import elevator.simulation.ParameterSweep;
+import elevator.simulation.SimulationResult;
+import elevator.traffic.TrafficProfile;
+
+/**
+ * Sweeps bank sizes and car capacities over a simulated office day, once on
+ * a single worker and once on a worker per core, and prints the results and
+ * the speedup
+ *
+ * Usage: CapacitySweep [peak arrivals per minute] [seed]
+ */
+public class CapacitySweep {
+
+    public static void main(String[] args) {
+        double peakRate = args.length > 0 ? Double.parseDouble(args[0]) : 20;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        TrafficProfile profile = TrafficProfile.officeDay(peakRate);
+        ParameterSweep sweep = new ParameterSweep(profile, seed);
+        sweep.setCarCounts(2, 3, 4, 6);
+        sweep.setFloorCounts(15, 25);
+        sweep.setMaxPeople(8, 12, 16);
+        sweep.setMaxWeights(1000);
+        sweep.setMoveDelays(1000, 2000);
+        sweep.setStopDelays(6000);
+
+        // Warms up the JIT so that the first timed run is not penalized
+        sweep.run(profile.getDuration());
+
+        long start = System.nanoTime();
+        List<SimulationResult> serial = sweep.run(new ForkJoinPool(1), profile.getDuration());
+        long serialTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<SimulationResult> parallel = sweep.run(new ForkJoinPool(cores), profile.getDuration());
+        long parallelTime = System.nanoTime() - start;
+
+        ParameterSweep.print(parallel, System.out);
+
+        boolean same = true;
+
+        for (int i = 0; i < serial.size(); i++) {
+            same &= serial.get(i).toString().equals(parallel.get(i).toString());
+        }
+
+        System.out.println(String.format(Locale.ROOT,
+                "%d simulations: %.2f s on 1 worker, %.2f s on %d workers (%.1fx), results %s",
+                serial.size(), serialTime / 1e9, parallelTime / 1e9, cores,
+                (double) serialTime / parallelTime, same ? "identical" : "DIFFER"));
+    }
+
+}
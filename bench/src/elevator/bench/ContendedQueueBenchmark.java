@@ -0,0 +1,92 @@
+package elevator.bench;
+
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorDispatcher;
+import elevator.elevator.ElevatorQueuer;
+import elevator.elevator.Person;
+
+/**
+ * Measures several producer threads calling ElevatorQueuer.queue at the same
+ * time, every operation is one burst of all producers
+ *
+ * Parameters: producers (producer threads), burst (persons per producer),
+ * floors (floor count)
+ */
+public class ContendedQueueBenchmark extends Benchmark {
+
+    private ElevatorQueuer eq;
+    private Thread[] threads;
+    private CyclicBarrier start;
+    private CyclicBarrier done;
+    private volatile boolean running;
+
+    @Override
+    public void setUp(Map<String, Integer> params, int operations) {
+        int producers = params.get("producers"),
+                burst = params.get("burst"),
+                floors = params.get("floors");
+
+        Elevator elevator = new Elevator(1, "Bench");
+        elevator.setFloorRange(1, floors);
+        elevator.setDispatcher(new ElevatorDispatcher("Bench", 0));
+        eq = new ElevatorQueuer(elevator);
+
+        start = new CyclicBarrier(producers + 1);
+        done = new CyclicBarrier(producers + 1);
+        threads = new Thread[producers];
+        running = true;
+
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+
+            threads[p] = new Thread(() -> {
+                try {
+                    while (true) {
+                        start.await();
+
+                        if (!running) {
+                            return;
+                        }
+
+                        try {
+                            for (int i = 0; i < burst; i++) {
+                                int floor = 1 + (producer + i) % floors;
+                                eq.queue(new Person(0, floor, floor % floors + 1));
+                            }
+                        } catch (RuntimeException e) {
+                            e.printStackTrace();
+                        } finally {
+                            done.await();
+                        }
+                    }
+                } catch (Exception e) {
+                    return;
+                }
+            }, "BenchProducer" + p);
+
+            threads[p].setDaemon(true);
+            threads[p].start();
+        }
+    }
+
+    @Override
+    public void run() throws Exception {
+        start.await();
+        done.await();
+    }
+
+    @Override
+    public void tearDown() {
+        running = false;
+
+        try {
+            start.await();
+        } catch (Exception e) {
+            return;
+        }
+    }
+
+}
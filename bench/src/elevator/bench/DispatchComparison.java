@@ -0,0 +1,64 @@
+package elevator.bench;
+
+import java.util.List;
+import java.util.Locale;
+
+import elevator.elevator.DispatchMode;
+import elevator.elevator.ElevatorBank;
+import elevator.simulation.SimulationResult;
+import elevator.simulation.StrategyComparison;
+import elevator.traffic.TrafficPhase;
+import elevator.traffic.TrafficProfile;
+
+/**
+ * Compares destination dispatch against conventional hall calls during a
+ * lobby up-peak
+ *
+ * Usage: DispatchComparison [elevators] [floors] [arrivals per minute] [seed]
+ */
+public class DispatchComparison {
+
+    private static final int MOVE_DELAY = 1500;
+    private static final int STOP_DELAY = 8000;
+    private static final int MAX_PEOPLE = 12;
+    private static final int MAX_WEIGHT = 1000;
+
+    public static void main(String[] args) {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 4,
+                floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 30;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        TrafficProfile profile = new TrafficProfile("up-peak",
+                new TrafficPhase("up-peak", 60, rate, 0.9, 0.05, 0.05));
+        profile.setRepeating(false);
+
+        StrategyComparison comparison = new StrategyComparison(() -> {
+            ElevatorBank bank = new ElevatorBank("Bank", cars, 0, floors - 1);
+            bank.setMoveDelay(MOVE_DELAY);
+            bank.setStopDelay(STOP_DELAY);
+            bank.setMaxPeople(MAX_PEOPLE);
+            bank.setMaxWeight(MAX_WEIGHT);
+
+            return bank;
+        }, profile, seed)
+                .addConfiguration("hall calls", bank -> bank.setDispatchMode(DispatchMode.HALL_CALL))
+                .addConfiguration("destination", bank -> bank.setDispatchMode(DispatchMode.DESTINATION));
+
+        List<SimulationResult> results = comparison.run(profile.getDuration());
+        SimulationResult hall = results.get(0), destination = results.get(1);
+
+        System.out.println(String.format("%d elevators, %d floors, %s", cars, floors, profile));
+        StrategyComparison.print(results, System.out);
+        System.out.println(String.format(Locale.ROOT,
+                "Destination dispatch: %+.1f%% throughput, %+.1f%% average wait, %+.1f%% average ride",
+                change(hall.getThroughput(), destination.getThroughput()),
+                change(hall.getWaitTimes().getMean(), destination.getWaitTimes().getMean()),
+                change(hall.getRideTimes().getMean(), destination.getRideTimes().getMean())));
+    }
+
+    private static double change(double base, double value) {
+        return base == 0 ? 0 : (value - base) / base * 100;
+    }
+
+}
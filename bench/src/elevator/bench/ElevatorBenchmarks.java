@@ -0,0 +1,64 @@
+package elevator.bench;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Benchmark suite of the elevator core and renderer
+ *
+ * Usage: ElevatorBenchmarks [output.json]
+ */
+public class ElevatorBenchmarks {
+
+    /**
+     * Creates a parameter grid
+     *
+     * @param entries Alternating parameter names and value arrays
+     * @return Parameter grid
+     */
+    private static Map<String, int[]> grid(Object... entries) {
+        Map<String, int[]> grid = new LinkedHashMap<>();
+
+        for (int i = 0; i < entries.length; i += 2) {
+            grid.put((String) entries[i], (int[]) entries[i + 1]);
+        }
+
+        return grid;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path output = Paths.get(args.length > 0 ? args[0] : "bench-results.json");
+
+        System.setProperty("java.awt.headless", "true");
+
+        BenchmarkRunner runner = new BenchmarkRunner();
+
+        runner.run("Elevator.request(Collection)", ElevatorRequestBenchmark::new,
+                grid("floors", new int[] { 16, 256 }, "depth", new int[] { 8, 64, 512 }), 200);
+
+        runner.run("Elevator.request(int)", ElevatorPrioritizeBenchmark::new,
+                grid("floors", new int[] { 16, 256 }, "depth", new int[] { 8, 64, 255 }), 2000);
+
+        runner.run("ElevatorQueuer.processFloor", QueuerBenchmark::new,
+                grid("floors", new int[] { 16 }, "passengers", new int[] { 1, 16, 256 }), 200);
+
+        runner.run("ElevatorQueuer.queue(contended)", ContendedQueueBenchmark::new,
+                grid("floors", new int[] { 16 }, "producers", new int[] { 1, 2, 4, 8, 32 },
+                        "burst", new int[] { 1000 }), 20);
+
+        runner.run("Elevator events(dispatcher vs ring)", EventDeliveryBenchmark::new,
+                grid("ring", new int[] { 0, 1 }, "consumers", new int[] { 1, 3 },
+                        "burst", new int[] { 256 }), 50);
+
+        runner.run("ElevatorRenderer.render", RenderBenchmark::new,
+                grid("floors", new int[] { 15, 60 }, "waiting", new int[] { 0, 8 }), 200);
+
+        runner.writeJson(output);
+
+        System.out.println("Results written to " + output.toAbsolutePath());
+        System.exit(0);
+    }
+
+}
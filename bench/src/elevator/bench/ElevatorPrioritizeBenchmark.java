@@ -0,0 +1,46 @@
+package elevator.bench;
+
+import java.util.Map;
+import java.util.Random;
+
+import elevator.elevator.Elevator;
+
+/**
+ * Measures Elevator.request(int) against an elevator which already has a
+ * deep stop queue
+ *
+ * Parameters: depth (queued stops), floors (floor count)
+ */
+public class ElevatorPrioritizeBenchmark extends Benchmark {
+
+    private final Random rand = new Random(1);
+
+    private Elevator elevator;
+    private int[] requests;
+    private int next;
+
+    @Override
+    public void setUp(Map<String, Integer> params, int operations) {
+        int floors = params.get("floors"), depth = Math.min(params.get("depth"), floors - 1);
+
+        elevator = new Elevator(1, "Bench");
+        elevator.setFloorRange(1, floors);
+
+        for (int floor = 2; floor < 2 + depth; floor++) {
+            elevator.request(floor);
+        }
+
+        requests = new int[operations];
+        next = 0;
+
+        for (int i = 0; i < operations; i++) {
+            requests[i] = 1 + rand.nextInt(floors);
+        }
+    }
+
+    @Override
+    public void run() {
+        elevator.request(requests[next++]);
+    }
+
+}
@@ -0,0 +1,48 @@
+package elevator.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import elevator.elevator.Elevator;
+
+/**
+ * Measures Elevator.request(Collection) filling an empty elevator with a
+ * burst of stops
+ *
+ * Parameters: depth (stops per burst), floors (floor count)
+ */
+public class ElevatorRequestBenchmark extends Benchmark {
+
+    private final Random rand = new Random(1);
+
+    private Elevator[] elevators;
+    private List<Integer> burst;
+    private int next;
+
+    @Override
+    public void setUp(Map<String, Integer> params, int operations) {
+        int floors = params.get("floors"), depth = params.get("depth");
+
+        elevators = new Elevator[operations];
+        next = 0;
+
+        for (int i = 0; i < operations; i++) {
+            elevators[i] = new Elevator(1, "Bench");
+            elevators[i].setFloorRange(1, floors);
+        }
+
+        burst = new ArrayList<>(depth);
+
+        for (int i = 0; i < depth; i++) {
+            burst.add(1 + rand.nextInt(floors));
+        }
+    }
+
+    @Override
+    public void run() {
+        elevators[next++].request(burst);
+    }
+
+}
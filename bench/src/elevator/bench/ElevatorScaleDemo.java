@@ -0,0 +1,91 @@
+package elevator.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorAction;
+import elevator.elevator.ElevatorDispatcher;
+import elevator.elevator.ElevatorQueuer;
+import elevator.elevator.ExecutionMode;
+import elevator.elevator.Person;
+
+/**
+ * Runs a large amount of elevators concurrently in one JVM, every elevator
+ * and its event delivery on their own thread of the chosen execution mode
+ *
+ * Usage: ElevatorScaleDemo [elevators] [persons per elevator] [VIRTUAL|PLATFORM]
+ */
+public class ElevatorScaleDemo {
+
+    private static final int FLOORS = 20;
+    private static final int MOVE_DELAY = 5;
+    private static final int DISPATCHER_CAPACITY = 64;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000,
+                persons = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        ExecutionMode requested = args.length > 2 ? ExecutionMode.valueOf(args[2]) : ExecutionMode.VIRTUAL,
+                mode = requested.effective();
+
+        if (mode != requested) {
+            System.out.println("Virtual threads are not supported by this JVM, using platform threads");
+        }
+
+        CountDownLatch arrived = new CountDownLatch(count * persons);
+        List<Elevator> cars = new ArrayList<>(count);
+        List<ElevatorQueuer> queuers = new ArrayList<>(count);
+        Random rand = new Random(42);
+
+        for (int i = 0; i < count; i++) {
+            Elevator car = new Elevator(1, "Scale" + i);
+            car.setFloorRange(1, FLOORS);
+            car.setMoveDelay(MOVE_DELAY);
+            car.setDispatcher(new ElevatorDispatcher(car.getElevatorName(),
+                    DISPATCHER_CAPACITY, mode));
+            car.setExecutionMode(mode);
+            car.addListener(ElevatorAction.EJECT, p -> arrived.countDown());
+
+            cars.add(car);
+            queuers.add(new ElevatorQueuer(car));
+        }
+
+        long start = System.nanoTime();
+
+        for (Elevator car : cars) {
+            car.start();
+        }
+
+        // Every person is queued after all elevators have been started
+        for (ElevatorQueuer eq : queuers) {
+            for (int i = 0; i < persons; i++) {
+                int floor = 1 + rand.nextInt(FLOORS), target;
+
+                while ((target = 1 + rand.nextInt(FLOORS)) == floor);
+
+                eq.queue(new Person(0, floor, target));
+            }
+        }
+
+        boolean completed = arrived.await(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(String.format(Locale.ROOT,
+                "%s: %d elevators, %d of %d trips completed in %.1f s, peak platform threads %d",
+                mode, count, count * persons - arrived.getCount(), count * persons,
+                elapsed / 1e9, ManagementFactory.getThreadMXBean().getPeakThreadCount()));
+
+        for (Elevator car : cars) {
+            car.stopRunning();
+            car.getDispatcher().shutdown();
+        }
+
+        System.exit(completed ? 0 : 1);
+    }
+
+}
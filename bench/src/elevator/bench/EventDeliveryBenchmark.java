@@ -0,0 +1,83 @@
+package elevator.bench;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorAction;
+import elevator.elevator.ElevatorEventRing;
+import elevator.elevator.ExecutionMode;
+
+/**
+ * Measures the delivery of the STOP events of a moving elevator to consumers
+ * on other threads, through the queued dispatcher or through an event ring.
+ * Every operation is a burst of steps, timed until every consumer has
+ * handled the whole burst.
+ *
+ * Parameters: ring (0 for the dispatcher, 1 for the event ring), consumers
+ * (consumer count), burst (steps per operation)
+ */
+public class EventDeliveryBenchmark extends Benchmark {
+
+    private Elevator elevator;
+    private ElevatorEventRing ring;
+    private AtomicLong[] handled;
+    private int burst;
+    private long expected;
+
+    @Override
+    public void setUp(Map<String, Integer> params, int operations) {
+        int consumers = params.get("consumers");
+
+        burst = params.get("burst");
+        expected = 0;
+
+        elevator = new Elevator(0, "Bench");
+        elevator.setFloorRange(0, operations * burst + 1);
+        handled = new AtomicLong[consumers];
+
+        if (params.get("ring") != 0) {
+            ring = new ElevatorEventRing("Bench");
+            elevator.setEventRing(ring);
+        }
+
+        for (int i = 0; i < consumers; i++) {
+            AtomicLong count = handled[i] = new AtomicLong();
+
+            if (ring != null) {
+                ring.addConsumer((event, endOfBatch) -> count.lazySet(count.get() + 1))
+                        .start(ExecutionMode.PLATFORM);
+            } else {
+                elevator.addListener(ElevatorAction.STOP, floor -> count.lazySet(count.get() + 1));
+            }
+        }
+
+        elevator.request(operations * burst + 1);
+    }
+
+    @Override
+    public void run() {
+        for (int i = 0; i < burst; i++) {
+            elevator.step();
+        }
+
+        expected += burst;
+
+        for (AtomicLong count : handled) {
+            while (count.get() < expected) {
+                Thread.yield();
+            }
+        }
+    }
+
+    @Override
+    public void tearDown() {
+        if (ring != null) {
+            ring.stop();
+            ring = null;
+        }
+
+        elevator.getDispatcher().shutdown();
+    }
+
+}
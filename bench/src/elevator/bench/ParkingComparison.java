@@ -0,0 +1,60 @@
+package elevator.bench;
+
+import java.util.List;
+
+import elevator.elevator.DemandParking;
+import elevator.elevator.DemandPredictor;
+import elevator.elevator.ElevatorBank;
+import elevator.simulation.SimulationResult;
+import elevator.simulation.StrategyComparison;
+import elevator.traffic.TrafficProfile;
+
+/**
+ * Compares idle elevators waiting at their last stop with idle elevators
+ * parked where the learned demand is highest, over simulated office days.
+ * The predictor learns from the first day onwards, the report covers every
+ * day.
+ *
+ * Usage: ParkingComparison [elevators] [floors] [peak arrivals per minute] [days] [seed]
+ */
+public class ParkingComparison {
+
+    private static final int MOVE_DELAY = 1500;
+    private static final int STOP_DELAY = 5000;
+    private static final int MAX_PEOPLE = 12;
+    private static final int MAX_WEIGHT = 1000;
+
+    public static void main(String[] args) {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 4,
+                floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        double peakRate = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        int days = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        TrafficProfile profile = TrafficProfile.officeDay(peakRate);
+
+        StrategyComparison comparison = new StrategyComparison(() -> {
+            ElevatorBank bank = new ElevatorBank("Bank", cars, 0, floors - 1);
+            bank.setMoveDelay(MOVE_DELAY);
+            bank.setStopDelay(STOP_DELAY);
+            bank.setMaxPeople(MAX_PEOPLE);
+            bank.setMaxWeight(MAX_WEIGHT);
+
+            return bank;
+        }, profile, seed)
+                .addConfiguration("last stop", bank -> { })
+                .addConfiguration("demand", bank -> bank.setParkingPolicy(new DemandParking(bank)));
+
+        System.out.println(String.format("%d elevators, %d floors, %d days, %s", cars, floors, days, profile));
+
+        List<SimulationResult> results = comparison.run(days * DemandPredictor.DAY);
+        StrategyComparison.print(results, System.out);
+
+        double before = results.get(0).getWaitTimes().getMean(),
+                after = results.get(1).getWaitTimes().getMean();
+
+        System.out.println(String.format("Average wait %.1f s -> %.1f s (%+.1f%%)",
+                before / 1000, after / 1000, (after - before) / before * 100));
+    }
+
+}
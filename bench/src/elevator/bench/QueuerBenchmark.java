@@ -0,0 +1,55 @@
+package elevator.bench;
+
+import java.util.Map;
+
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorAction;
+import elevator.elevator.ElevatorDispatcher;
+import elevator.elevator.ElevatorQueuer;
+import elevator.elevator.ElevatorStop;
+import elevator.elevator.Person;
+
+/**
+ * Measures ElevatorQueuer.queue followed by the elevator stopping at the
+ * floor and boarding everyone waiting there
+ *
+ * Parameters: passengers (persons queued per stop), floors (floor count)
+ */
+public class QueuerBenchmark extends Benchmark {
+
+    private Elevator[] elevators;
+    private ElevatorQueuer[] queuers;
+    private int passengers;
+    private int floors;
+    private int next;
+
+    @Override
+    public void setUp(Map<String, Integer> params, int operations) {
+        passengers = params.get("passengers");
+        floors = params.get("floors");
+
+        elevators = new Elevator[operations];
+        queuers = new ElevatorQueuer[operations];
+        next = 0;
+
+        for (int i = 0; i < operations; i++) {
+            elevators[i] = new Elevator(1, "Bench");
+            elevators[i].setFloorRange(1, floors);
+            elevators[i].setDispatcher(new ElevatorDispatcher("Bench", 0));
+            queuers[i] = new ElevatorQueuer(elevators[i]);
+        }
+    }
+
+    @Override
+    public void run() {
+        Elevator elevator = elevators[next];
+        ElevatorQueuer eq = queuers[next++];
+
+        for (int i = 0; i < passengers; i++) {
+            eq.queue(new Person(0, 2, 3 + i % (floors - 2)));
+        }
+
+        elevator.getDispatcher().dispatch(ElevatorAction.STOP, new ElevatorStop(2, 0));
+    }
+
+}
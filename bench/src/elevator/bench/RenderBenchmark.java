@@ -0,0 +1,54 @@
+package elevator.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+
+import elevator.ElevatorRenderer;
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorDispatcher;
+import elevator.elevator.ElevatorQueuer;
+import elevator.elevator.Person;
+
+/**
+ * Measures ElevatorRenderer.render into an offscreen image
+ *
+ * Parameters: floors (floor count), waiting (persons waiting per floor)
+ */
+public class RenderBenchmark extends Benchmark {
+
+    private BufferedImage image;
+    private Graphics2D g;
+    private ElevatorRenderer renderer;
+
+    @Override
+    public void setUp(Map<String, Integer> params, int operations) {
+        int floors = params.get("floors"), waiting = params.get("waiting");
+
+        if (renderer != null) {
+            return;
+        }
+
+        Elevator elevator = new Elevator(1, "Bench");
+        elevator.setFloorRange(1, floors);
+        elevator.setDispatcher(new ElevatorDispatcher("Bench", 0));
+
+        ElevatorQueuer eq = new ElevatorQueuer(elevator);
+
+        for (int floor = 2; floor <= floors; floor++) {
+            for (int i = 0; i < waiting; i++) {
+                eq.queue(new Person(0, floor, 1));
+            }
+        }
+
+        image = new BufferedImage(700, floors * 40 + 40, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+        renderer = new ElevatorRenderer(elevator, eq);
+    }
+
+    @Override
+    public void run() {
+        renderer.render(g);
+    }
+
+}
@@ -0,0 +1,39 @@
+package elevator.bench;
+
+import elevator.elevator.ElevatorBank;
+import elevator.simulation.StrategyComparison;
+import elevator.traffic.TrafficProfile;
+
+/**
+ * Compares the built-in scheduling strategies over a simulated office day
+ *
+ * Usage: SchedulingComparison [elevators] [floors] [peak arrivals per minute] [seed]
+ */
+public class SchedulingComparison {
+
+    private static final int MOVE_DELAY = 1500;
+    private static final int MAX_PEOPLE = 12;
+    private static final int MAX_WEIGHT = 1000;
+
+    public static void main(String[] args) {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 4,
+                floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        double peakRate = args.length > 2 ? Double.parseDouble(args[2]) : 20;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        TrafficProfile profile = TrafficProfile.officeDay(peakRate);
+
+        StrategyComparison comparison = new StrategyComparison(() -> {
+            ElevatorBank bank = new ElevatorBank("Bank", cars, 0, floors - 1);
+            bank.setMoveDelay(MOVE_DELAY);
+            bank.setMaxPeople(MAX_PEOPLE);
+            bank.setMaxWeight(MAX_WEIGHT);
+
+            return bank;
+        }, profile, seed).addBuiltIns();
+
+        System.out.println(String.format("%d elevators, %d floors, %s", cars, floors, profile));
+        StrategyComparison.print(comparison.run(profile.getDuration()), System.out);
+    }
+
+}
@@ -6,6 +6,7 @@ import elevator.display.Window;
 import elevator.elevator.Elevator;
 import elevator.elevator.ElevatorQueuer;
 import elevator.elevator.ElevatorSpawner;
+import elevator.metrics.TripMetrics;
 
 public class Application {
 
@@ -17,6 +18,7 @@ public class Application {
     private Canvas canvas;
     private Elevator elevator;
     private ElevatorQueuer eq;
+    private TripMetrics metrics;
 
     public static void main(String[] args) {
         Application app = new Application();
@@ -44,6 +46,8 @@ public class Application {
         // Initializes the elevator renderer
         ElevatorRenderer renderer = new ElevatorRenderer(elevator, eq);
 
+        // The renderer redraws only what changed, on top of the last frame
+        canvas.setClearBuffer(false);
         canvas.setSurface(g -> {
             renderer.render(g);
         });
@@ -60,9 +64,13 @@ public class Application {
 
         eq = new ElevatorQueuer(elevator);
 
+        // Collects the passenger wait and ride times, written out on exit
+        metrics = new TripMetrics();
+        metrics.attach(elevator);
+        metrics.dumpOnShutdown(System.out);
+
         // Initializes the elevator thread
-        Thread elevatorThread = new Thread(elevator, "Elevator" + elevator.getElevatorName());
-        elevatorThread.start();
+        elevator.start();
 
         // Initializes the elevator spawner
         ElevatorSpawner tester = new ElevatorSpawner(elevator, eq);
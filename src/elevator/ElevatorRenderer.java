@@ -4,25 +4,54 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
-import java.util.HashMap;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import elevator.elevator.Elevator;
 import elevator.elevator.ElevatorAction;
 import elevator.elevator.ElevatorQueuer;
+import elevator.elevator.ElevatorSnapshot;
 import elevator.elevator.Person;
 
 public class ElevatorRenderer {
 
+    /**
+     * Person who left the elevator, shown until it expires
+     */
+    private static class EjectedEntry {
+
+        private final Person person;
+        private final int floor;
+        private final long expiryTime;
+
+        public EjectedEntry(Person person, int floor, long expiryTime) {
+            this.person = person;
+            this.floor = floor;
+            this.expiryTime = expiryTime;
+        }
+
+    }
+
+    /**
+     * Versions of the ejected persons of every floor of a floor range
+     */
+    private static class EjectedVersions {
+
+        private final int bottomFloor;
+        private final AtomicIntegerArray versions;
+
+        public EjectedVersions(int bottomFloor, int topFloor) {
+            this.bottomFloor = bottomFloor;
+            this.versions = new AtomicIntegerArray(topFloor - bottomFloor + 1);
+        }
+
+    }
+
     // Rendering configurations
     private final static int GLOBAL_MARGIN = 20;
 
@@ -35,16 +64,35 @@ public class ElevatorRenderer {
 
     private final static int ELEVATOR_WIDTH = 200;
 
+    private final static long EJECTED_TIME = 1000;
+
+    private final static int ELEVATOR_X = GLOBAL_MARGIN * 2 + FLOOR_WIDTH;
+    private final static int EJECTED_X = GLOBAL_MARGIN * 3 + FLOOR_WIDTH + ELEVATOR_WIDTH;
+    private final static int SCENE_WIDTH = EJECTED_X + 5 * (PERSON_WIDTH + PERSON_MARGIN);
+
     // Variables
     private final Elevator elevator;
     private final ElevatorQueuer eq;
 
-    private final Queue<Person> ejected = new ConcurrentLinkedQueue<>();
+    // Ordered by expiry time, as every entry lives for the same time
+    private final Queue<EjectedEntry> ejected = new ConcurrentLinkedQueue<>();
+    private volatile EjectedVersions ejectedVersions;
 
     // Font
     private Font labelFont = new Font("Arial", Font.BOLD, 16);
+    private Font floorFont = new Font("Arial", Font.PLAIN, 12);
 
-    private ScheduledThreadPoolExecutor timerExecutor = new ScheduledThreadPoolExecutor(1024);
+    // Cached layers, only touched by the rendering thread
+    private BufferedImage staticLayer;
+    private BufferedImage scene;
+    private int sceneBottom;
+    private int sceneTop;
+
+    // Rendered state of every floor row, used to find the rows to redraw
+    private int[] queueVersions;
+    private int[] rowEjectedVersions;
+    private int carFloor;
+    private List<Person> carPassengers;
 
     /**
      * Draws the person at the given coordinates
@@ -95,6 +143,16 @@ public class ElevatorRenderer {
     private void drawFloor(Graphics2D g, int floor, int x, int y) {
         g.setPaint(Color.RED);
         g.drawLine(x, y + FLOOR_HEIGHT, x + FLOOR_WIDTH, y + FLOOR_HEIGHT);
+
+        // Floor label, at the far side of the shaft
+        g.setPaint(Color.DARK_GRAY);
+        g.setFont(floorFont);
+        FontMetrics fm = g.getFontMetrics();
+        String str = Integer.toString(floor);
+
+        g.drawString(str,
+                ELEVATOR_X + ELEVATOR_WIDTH - fm.stringWidth(str) - 4,
+                y + FLOOR_HEIGHT / 2 + fm.getAscent() / 2);
     }
 
     /**
@@ -110,87 +168,192 @@ public class ElevatorRenderer {
     }
 
     /**
-     * Renders the floors and persons queued at the floor
+     * Gets the y-coordinate of a floor row
      *
-     * @param g Graphics object
-     * @param x X-coordinate
-     * @param y Y-coordinate
+     * @param floor Floor
+     * @return Y-coordinate
      */
-    private void renderFloors(Graphics2D g, int x, int y) {
-        int iteration = 0;
+    private int rowY(int floor) {
+        return GLOBAL_MARGIN + (sceneTop - floor) * FLOOR_HEIGHT;
+    }
 
-        for (int i = elevator.getTopFloor(); i >= elevator.getBottomFloor(); i--) {
-            int floorY = y + iteration * FLOOR_HEIGHT;
-            drawFloor(g, i, x, floorY);
+    /**
+     * Gets the version of the ejected persons of a floor
+     *
+     * @param floor Floor
+     * @return Version
+     */
+    private int ejectedVersion(int floor) {
+        EjectedVersions versions = ejectedVersions;
+        int index = floor - versions.bottomFloor;
 
-            List<Person> persons = eq.getFloorQueue(i);
+        return index >= 0 && index < versions.versions.length() ? versions.versions.get(index) : 0;
+    }
 
-            int personsWidth = persons.size() * PERSON_WIDTH + (persons.size() - 1) * PERSON_MARGIN;
+    /**
+     * Marks the ejected persons of a floor as changed
+     *
+     * @param floor Floor
+     */
+    private void touchEjected(int floor) {
+        EjectedVersions versions;
 
-            drawPersons(g, persons, x + FLOOR_WIDTH - personsWidth, floorY + (FLOOR_HEIGHT - PERSON_HEIGHT) / 2);
+        // Touches the versions replaced by a floor range change meanwhile
+        // again, so the change is not lost with the old versions
+        do {
+            versions = ejectedVersions;
+            int index = floor - versions.bottomFloor;
 
-            iteration++;
-        }
+            if (index >= 0 && index < versions.versions.length()) {
+                versions.versions.incrementAndGet(index);
+            }
+        } while (versions != ejectedVersions);
     }
 
     /**
-     * Renders the elevator
-     * 
-     * @param g Graphics object
-     * @param x X-coordinate
-     * @param y Y-coordinate
+     * Prerenders the floor lines, the shaft and the floor labels and resets
+     * the scene to them
+     *
+     * @param config Graphics configuration of the target
      */
-    private void renderElevator(Graphics2D g, int x, int y) {
-        int yOff = (elevator.getFloorCount() - elevator.getFloor()) * FLOOR_HEIGHT;
+    private void initLayers(GraphicsConfiguration config) {
+        int floors = elevator.getFloorCount(),
+                width = SCENE_WIDTH,
+                height = GLOBAL_MARGIN * 2 + floors * FLOOR_HEIGHT;
+
+        sceneBottom = elevator.getBottomFloor();
+        sceneTop = elevator.getTopFloor();
+
+        if (ejectedVersions.bottomFloor != sceneBottom
+                || ejectedVersions.versions.length() != sceneTop - sceneBottom + 1) {
+            ejectedVersions = new EjectedVersions(sceneBottom, sceneTop);
+        }
 
-        drawElevator(g, x, y + yOff);
+        staticLayer = config.createCompatibleImage(width, height);
+        scene = config.createCompatibleImage(width, height);
 
-        List<Person> list = elevator.getPassengers();
+        Graphics2D g = staticLayer.createGraphics();
 
-        drawPersons(g,
-                list,
-                x + PERSON_MARGIN,
-                y + yOff + (FLOOR_HEIGHT - PERSON_HEIGHT) / 2);
+        try {
+            g.setBackground(Color.BLACK);
+            g.clearRect(0, 0, width, height);
+
+            g.setPaint(Color.DARK_GRAY);
+            g.drawRect(ELEVATOR_X - 1, GLOBAL_MARGIN - 1, ELEVATOR_WIDTH + 1, floors * FLOOR_HEIGHT + 1);
+
+            for (int i = sceneTop; i >= sceneBottom; i--) {
+                drawFloor(g, i, GLOBAL_MARGIN, rowY(i));
+            }
+        } finally {
+            g.dispose();
+        }
+
+        g = scene.createGraphics();
+
+        try {
+            g.drawImage(staticLayer, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+
+        // Every row is redrawn on the next frame
+        queueVersions = new int[floors];
+        rowEjectedVersions = new int[floors];
+
+        for (int i = 0; i < floors; i++) {
+            queueVersions[i] = -1;
+        }
+
+        carFloor = Integer.MIN_VALUE;
     }
 
     /**
-     * Renders the elevator
-     * 
-     * @param g Graphics object
-     * @param x X-coordinate
-     * @param y Y-coordinate
+     * Redraws a single floor row of the scene
+     *
+     * @param g Graphics object of the scene
+     * @param floor Floor
+     * @param car State of the elevator
      */
-    private void renderEjected(Graphics2D g, int x, int y) {
-        List<Person> persons = new LinkedList<>();
-        Map<Integer, List<Person>> floors = new HashMap<>();
-
-        for (int i = elevator.getBottomFloor(); i <= elevator.getTopFloor(); i++) {
-            floors.put(i, new LinkedList<Person>());
+    private void renderRow(Graphics2D g, int floor, ElevatorSnapshot car) {
+        int y = rowY(floor), width = scene.getWidth();
+
+        // Restores the static layer under the row
+        g.drawImage(staticLayer, 0, y, width, y + FLOOR_HEIGHT, 0, y, width, y + FLOOR_HEIGHT, null);
+
+        // Persons queued at the floor
+        List<Person> persons = eq.getFloorQueue(floor);
+        int personsWidth = persons.size() * PERSON_WIDTH + (persons.size() - 1) * PERSON_MARGIN;
+
+        drawPersons(g, persons,
+                GLOBAL_MARGIN + FLOOR_WIDTH - personsWidth,
+                y + (FLOOR_HEIGHT - PERSON_HEIGHT) / 2);
+
+        // Elevator and its passengers
+        if (floor == car.getFloor()) {
+            drawElevator(g, ELEVATOR_X, y);
+            drawPersons(g,
+                    car.getPassengers(),
+                    ELEVATOR_X + PERSON_MARGIN,
+                    y + (FLOOR_HEIGHT - PERSON_HEIGHT) / 2);
         }
 
-        for (Person p : ejected) {
-            floors.get(p.getFloor()).add(p);
+        // Persons who recently left the elevator at the floor
+        List<Person> left = new LinkedList<>();
+
+        for (EjectedEntry entry : ejected) {
+            if (entry.floor == floor) {
+                left.add(entry.person);
+            }
         }
 
-        for (int i = elevator.getTopFloor(); i >= elevator.getBottomFloor(); i--) {
-            persons = floors.get(i);
+        drawPersons(g, left, EJECTED_X, y);
+    }
 
-            if (persons != null) {
-                int floorY = y + (elevator.getTopFloor() - i) * FLOOR_HEIGHT;
-                drawPersons(g, persons, x, floorY);
-            }
+    /**
+     * Removes the ejected persons whose time has run out
+     */
+    private void expireEjected() {
+        long now = elevator.getClock().currentTimeMillis();
+        EjectedEntry entry;
+
+        while ((entry = ejected.peek()) != null && entry.expiryTime <= now) {
+            ejected.poll();
+            touchEjected(entry.floor);
         }
     }
 
     /**
-     * Renders the scene
-     * 
-     * @param g Graphics object
+     * Redraws the rows of the scene that changed since the last frame
      */
-    private void renderScene(Graphics2D g) {
-        renderFloors(g, GLOBAL_MARGIN, GLOBAL_MARGIN);
-        renderElevator(g, GLOBAL_MARGIN * 2 + FLOOR_WIDTH, GLOBAL_MARGIN);
-        renderEjected(g, GLOBAL_MARGIN * 3 + FLOOR_WIDTH + ELEVATOR_WIDTH, GLOBAL_MARGIN);
+    private void updateScene() {
+        // One snapshot per frame, so the car is drawn as a single state
+        ElevatorSnapshot car = elevator.getSnapshot();
+        int elevatorFloor = car.getFloor();
+        boolean carChanged = elevatorFloor != carFloor || car.getPassengers() != carPassengers;
+
+        Graphics2D g = scene.createGraphics();
+
+        try {
+            for (int i = sceneTop; i >= sceneBottom; i--) {
+                int row = i - sceneBottom,
+                        queueVersion = eq.getFloorVersion(i),
+                        ejectedVersion = ejectedVersion(i);
+
+                if (queueVersion != queueVersions[row]
+                        || ejectedVersion != rowEjectedVersions[row]
+                        || (carChanged && (i == elevatorFloor || i == carFloor))) {
+                    queueVersions[row] = queueVersion;
+                    rowEjectedVersions[row] = ejectedVersion;
+
+                    renderRow(g, i, car);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+
+        carFloor = elevatorFloor;
+        carPassengers = car.getPassengers();
     }
 
     /**
@@ -199,13 +362,16 @@ public class ElevatorRenderer {
      * @param g2 Graphics object
      */
     public void render(Graphics2D g2) {
-        final Graphics2D g = (Graphics2D) g2.create();
-
-        try {
-            renderScene(g);
-        } finally {
-            g.dispose();
+        if (scene == null
+                || sceneBottom != elevator.getBottomFloor()
+                || sceneTop != elevator.getTopFloor()) {
+            initLayers(g2.getDeviceConfiguration());
         }
+
+        expireEjected();
+        updateScene();
+
+        g2.drawImage(scene, 0, 0, null);
     }
 
     /**
@@ -217,13 +383,16 @@ public class ElevatorRenderer {
     public ElevatorRenderer(Elevator elevator, ElevatorQueuer eq) {
         this.elevator = elevator;
         this.eq = eq;
+        this.ejectedVersions = new EjectedVersions(elevator.getBottomFloor(), elevator.getTopFloor());
 
         elevator.addListener(ElevatorAction.EJECT, p -> {
             final Person person = (Person) p;
-            ejected.offer(person);
-            timerExecutor.schedule(() -> {
-                ejected.poll();
-            }, 1, TimeUnit.SECONDS);
+            final int floor = person.getFloor();
+
+            // Expires relative to the moment the person left the elevator,
+            // regardless of when the event was delivered
+            ejected.offer(new EjectedEntry(person, floor, person.getEjectTime() + EJECTED_TIME));
+            touchEjected(floor);
         });
     }
 
@@ -19,11 +19,15 @@ import java.awt.image.BufferedImage;
 @SuppressWarnings("serial")
 public class Canvas extends java.awt.Canvas {
 
-    private boolean running;
+    private static final int STATS_WIDTH = 300;
+    private static final int STATS_HEIGHT = 24;
+
+    private boolean clearBuffer = true;
+    private boolean firstFrame = true;
     private int width;
     private int height;
-    private int fps;
-    private int targetFrequency;
+
+    private final FrameScheduler scheduler = new FrameScheduler("Canvas", this::renderFrame);
 
     private GraphicsDevice gDevice;
     private GraphicsConfiguration gConfig;
@@ -41,18 +45,33 @@ public class Canvas extends java.awt.Canvas {
         this.surface = surface;
     }
 
+    /**
+     * Sets whether the whole buffer is cleared before every frame, surfaces
+     * that keep their own content up to date can leave it uncleared
+     *
+     * @param clearBuffer Clear the buffer before every frame
+     */
+    public void setClearBuffer(boolean clearBuffer) {
+        this.clearBuffer = clearBuffer;
+    }
+
     /**
      * Rendering
      *
      * @param g Graphics object
      */
     private void render(Graphics2D g) {
-        g.setColor(Color.RED);
-        g.drawString("FPS: " + fps, 10, 20);
-
         if (surface != null && g != null) {
             surface.render(g);
         }
+
+        FrameStatistics stats = scheduler.getStatistics();
+
+        g.setColor(Color.RED);
+        g.drawString(String.format("FPS: %.0f (p99 %.1f ms, %d dropped)",
+                stats.getFramesPerSecond(),
+                stats.getP99FrameTime(),
+                stats.getDroppedFrames()), 10, 20);
     }
 
     /**
@@ -75,63 +94,40 @@ public class Canvas extends java.awt.Canvas {
     }
 
     /**
-     * Initializes rendering
+     * Renders a single frame
      */
-    private void initRender() {
+    private void renderFrame() {
         Graphics bStrategyGraphics = null;
         Graphics2D bImageGraphics = null;
 
-        long curTime, lastTime, wait;
-
-        while (running) {
-            try {
-                // Sets last time to pre-render phase
-                lastTime = System.currentTimeMillis();
+        try {
+            // Clears the buffer
+            bStrategyGraphics = bStrategy.getDrawGraphics();
+            bImageGraphics = bImage.createGraphics();
+            bImageGraphics.setBackground(Color.BLACK);
 
-                // Clears the buffer
-                bStrategyGraphics = bStrategy.getDrawGraphics();
-                bImageGraphics = bImage.createGraphics();
-                bImageGraphics.setBackground(Color.BLACK);
+            if (clearBuffer || firstFrame) {
                 bImageGraphics.clearRect(0, 0, width, height);
+                firstFrame = false;
+            } else {
+                bImageGraphics.clearRect(0, 0, STATS_WIDTH, STATS_HEIGHT);
+            }
 
-                // Renders and draws the buffer
-                this.render(bImageGraphics);
-                bStrategyGraphics.drawImage(bImage, 0, 0, null);
-
-                // Blits the buffer
-                if (!bStrategy.contentsLost()) {
-                    bStrategy.show();
-                }
-
-                // FPS-counter and framerate adjuster
-                // TODO: Implement a render thread scheduler instead
-                curTime = System.currentTimeMillis();
-
-                if (targetFrequency > 0) {
-                    wait = targetFrequency - (curTime - lastTime);
-
-                    if (wait > 0) {
-                        try {
-                            Thread.sleep(wait);
-                        } catch (InterruptedException e) {
-                        }
-                    }
-                }
-
-                curTime = System.currentTimeMillis();
-
-                fps = (int) (((curTime - lastTime) > 0)
-                        ? 1000 / (curTime - lastTime)
-                        : 0);
+            // Renders and draws the buffer
+            this.render(bImageGraphics);
+            bStrategyGraphics.drawImage(bImage, 0, 0, null);
 
-            } finally {
-                if (bStrategyGraphics != null) {
-                    bStrategyGraphics.dispose();
-                }
+            // Blits the buffer
+            if (!bStrategy.contentsLost()) {
+                bStrategy.show();
+            }
+        } finally {
+            if (bStrategyGraphics != null) {
+                bStrategyGraphics.dispose();
+            }
 
-                if (bImageGraphics != null) {
-                    bImageGraphics.dispose();
-                }
+            if (bImageGraphics != null) {
+                bImageGraphics.dispose();
             }
         }
     }
@@ -142,11 +138,7 @@ public class Canvas extends java.awt.Canvas {
      * @param ups Updates per second
      */
     private void setUpdateFrequency(int ups) {
-        if (ups > 0) {
-            this.targetFrequency = 1000 / ups;
-        } else {
-            this.targetFrequency = 0;
-        }
+        scheduler.setTargetFrequency(ups);
     }
 
     /**
@@ -173,11 +165,40 @@ public class Canvas extends java.awt.Canvas {
         initGraphicsConfig();
         initBuffer();
 
-        this.running = true;
+        start();
+    }
+
+    /**
+     * Starts rendering
+     */
+    public void start() {
+        scheduler.start();
+    }
+
+    /**
+     * Stops rendering, waits for the current frame to finish
+     */
+    public void stop() {
+        scheduler.stop();
+    }
+
+    /**
+     * Sets the highest frame rate, which also caps a higher target
+     * frequency. Without a target frequency the canvas renders at the cap.
+     *
+     * @param fps Frames per second
+     */
+    public void setFrequencyCap(int fps) {
+        scheduler.setFrequencyCap(fps);
+    }
 
-        new Thread(() -> {
-            Canvas.this.initRender();
-        }, "Canvas").start();
+    /**
+     * Gets the frame time statistics
+     *
+     * @return Frame statistics
+     */
+    public FrameStatistics getFrameStatistics() {
+        return scheduler.getStatistics();
     }
 
     /**
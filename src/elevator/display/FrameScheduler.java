@@ -0,0 +1,175 @@
+package elevator.display;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed rate frame scheduler
+ *
+ * Frames are scheduled on absolute deadlines measured with System.nanoTime,
+ * so sleeping too long for one frame is made up on the next one instead of
+ * drifting. When a frame falls more than a whole period behind, the missed
+ * frames are counted as dropped and the schedule restarts from the current
+ * time instead of rendering a burst of frames.
+ */
+public class FrameScheduler {
+
+    private static final int DEFAULT_CAP = 240;
+    private static final int STATISTICS_WINDOW = 240;
+
+    private final String name;
+    private final Runnable frame;
+    private final FrameStatistics statistics = new FrameStatistics(STATISTICS_WINDOW);
+
+    private volatile int targetFrequency;
+    private volatile int frequencyCap = DEFAULT_CAP;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Gets the frame period
+     *
+     * @return Period in nanoseconds
+     */
+    private long period() {
+        int target = targetFrequency, cap = frequencyCap,
+                fps = target > 0 ? Math.min(target, cap) : cap;
+
+        return 1_000_000_000L / Math.max(1, fps);
+    }
+
+    /**
+     * Renders frames until stopped
+     */
+    private void loop() {
+        long period, now, lastStart, deadline, behind;
+
+        statistics.resetWindow();
+
+        deadline = System.nanoTime();
+        lastStart = -1;
+
+        while (running) {
+            now = System.nanoTime();
+
+            if (lastStart >= 0) {
+                statistics.record(now - lastStart);
+            }
+
+            lastStart = now;
+
+            try {
+                frame.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+
+            period = period();
+            deadline += period;
+            now = System.nanoTime();
+            behind = now - deadline;
+
+            if (behind > period) {
+                // Too far behind to catch up, skips the missed frames
+                statistics.recordDropped(behind / period);
+                deadline = now;
+            } else {
+                while (running && (behind = deadline - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, behind);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts rendering frames on a thread of its own
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::loop, name);
+        thread.start();
+    }
+
+    /**
+     * Stops rendering and waits for the current frame to finish
+     */
+    public void stop() {
+        Thread t;
+
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+
+            running = false;
+            t = thread;
+            thread = null;
+        }
+
+        LockSupport.unpark(t);
+
+        if (t != Thread.currentThread()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns true if the scheduler is running
+     *
+     * @return True if the scheduler is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the frame statistics
+     *
+     * @return Frame statistics
+     */
+    public FrameStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Sets the target frame rate
+     *
+     * @param fps Frames per second, 0 to render as fast as the cap allows
+     */
+    public void setTargetFrequency(int fps) {
+        this.targetFrequency = Math.max(0, fps);
+    }
+
+    /**
+     * Sets the highest frame rate, which also caps a higher target
+     * frequency
+     *
+     * @param fps Frames per second
+     */
+    public void setFrequencyCap(int fps) {
+        if (fps <= 0) {
+            throw new IllegalArgumentException("The frame rate cap must be positive");
+        }
+
+        this.frequencyCap = fps;
+    }
+
+    /**
+     * Frame scheduler
+     *
+     * @param name Thread name
+     * @param frame Renders a single frame
+     */
+    public FrameScheduler(String name, Runnable frame) {
+        this.name = name;
+        this.frame = frame;
+    }
+
+}
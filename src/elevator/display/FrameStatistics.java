@@ -0,0 +1,115 @@
+package elevator.display;
+
+import java.util.Arrays;
+
+/**
+ * Frame time statistics over a window of the most recent frames
+ */
+public class FrameStatistics {
+
+    private final long[] intervals;
+
+    private int next;
+    private int size;
+    private long windowSum;
+    private long frames;
+    private long dropped;
+
+    /**
+     * Records a frame
+     *
+     * @param interval Nanoseconds since the start of the previous frame
+     */
+    synchronized void record(long interval) {
+        if (size == intervals.length) {
+            windowSum -= intervals[next];
+        } else {
+            size++;
+        }
+
+        intervals[next] = interval;
+        windowSum += interval;
+        next = (next + 1) % intervals.length;
+        frames++;
+    }
+
+    /**
+     * Records frames that were skipped to catch up with the schedule
+     *
+     * @param count Dropped frames
+     */
+    synchronized void recordDropped(long count) {
+        dropped += count;
+    }
+
+    /**
+     * Resets the window, keeping the totals
+     */
+    synchronized void resetWindow() {
+        next = 0;
+        size = 0;
+        windowSum = 0;
+    }
+
+    /**
+     * Gets the average frame time of the window
+     *
+     * @return Average frame time in milliseconds
+     */
+    public synchronized double getAverageFrameTime() {
+        return size == 0 ? 0 : windowSum / (double) size / 1e6;
+    }
+
+    /**
+     * Gets the 99th percentile frame time of the window
+     *
+     * @return Frame time in milliseconds
+     */
+    public synchronized double getP99FrameTime() {
+        if (size == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(intervals, size);
+        Arrays.sort(sorted);
+
+        return sorted[Math.min(size - 1, (int) Math.ceil(size * 0.99) - 1)] / 1e6;
+    }
+
+    /**
+     * Gets the average frame rate of the window
+     *
+     * @return Frames per second
+     */
+    public synchronized double getFramesPerSecond() {
+        return windowSum == 0 ? 0 : size * 1e9 / windowSum;
+    }
+
+    /**
+     * Gets the amount of rendered frames
+     *
+     * @return Frames
+     */
+    public synchronized long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Gets the amount of frames dropped because rendering fell behind
+     *
+     * @return Dropped frames
+     */
+    public synchronized long getDroppedFrames() {
+        return dropped;
+    }
+
+    /**
+     * Frame statistics
+     *
+     * @param window Amount of frames in the window
+     */
+    public FrameStatistics(int window) {
+        this.intervals = new long[window];
+    }
+
+}
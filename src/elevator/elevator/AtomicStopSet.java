@@ -0,0 +1,145 @@
+package elevator.elevator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed range set of requested floors that any thread can add to without
+ * locking
+ *
+ * Producers set the bit of a floor with a single compare-and-set, the
+ * elevator takes whole words at a time and moves them into its own stop set.
+ */
+class AtomicStopSet {
+
+    private final AtomicLongArray words;
+    private final int offset;
+    private final int floors;
+
+    /**
+     * Checks if a floor is inside of the set's range
+     *
+     * @param floor Floor
+     * @return True if the floor can be added
+     */
+    public boolean covers(int floor) {
+        long index = (long) floor - offset;
+
+        return index >= 0 && index < floors;
+    }
+
+    /**
+     * Adds a floor
+     *
+     * @param floor Floor inside of the range
+     * @return True if the floor was added, false if it was already set
+     */
+    public boolean add(int floor) {
+        int index = floor - offset, w = index >> 6;
+        long mask = 1L << index, word;
+
+        do {
+            word = words.get(w);
+
+            if ((word & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(w, word, word | mask));
+
+        return true;
+    }
+
+    /**
+     * Removes a floor
+     *
+     * @param floor Floor
+     * @return True if the floor was set
+     */
+    public boolean remove(int floor) {
+        if (!covers(floor)) {
+            return false;
+        }
+
+        int index = floor - offset, w = index >> 6;
+        long mask = 1L << index, word;
+
+        do {
+            word = words.get(w);
+
+            if ((word & mask) == 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(w, word, word & ~mask));
+
+        return true;
+    }
+
+    /**
+     * Checks if no floors are set
+     *
+     * @return True if empty
+     */
+    public boolean isEmpty() {
+        for (int w = 0; w < words.length(); w++) {
+            if (words.get(w) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the amount of set floors
+     *
+     * @return Floor count
+     */
+    public int size() {
+        int size = 0;
+
+        for (int w = 0; w < words.length(); w++) {
+            size += Long.bitCount(words.get(w));
+        }
+
+        return size;
+    }
+
+    /**
+     * Removes every set floor and adds it to a stop set
+     *
+     * @param target Stop set
+     * @return Amount of floors moved
+     */
+    public int drainTo(StopSet target) {
+        int drained = 0;
+        long word;
+
+        for (int w = 0; w < words.length(); w++) {
+            if (words.get(w) == 0) {
+                continue;
+            }
+
+            word = words.getAndSet(w, 0);
+
+            while (word != 0) {
+                target.add(offset + (w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+                drained++;
+            }
+        }
+
+        return drained;
+    }
+
+    /**
+     * Atomic stop set
+     *
+     * @param bottomFloor Bottom floor
+     * @param topFloor Top floor
+     */
+    public AtomicStopSet(int bottomFloor, int topFloor) {
+        this.offset = bottomFloor;
+        this.floors = Math.max(1, topFloor - bottomFloor + 1);
+        this.words = new AtomicLongArray((floors + 63) / 64);
+    }
+
+}
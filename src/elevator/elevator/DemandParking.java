@@ -0,0 +1,157 @@
+package elevator.elevator;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Parks the idle elevators of a bank at the floors with the most expected
+ * demand, such as the lobby in the morning
+ *
+ * Every idle elevator claims its parking floor, so the idle elevators of a
+ * bank spread over the busiest floors rather than racing for the same one. A
+ * claim lapses as soon as the elevator is sent anywhere else. An elevator
+ * stays where it is unless another floor expects more arrivals than its own,
+ * which an idle elevator checks again every minute by default.
+ */
+public class DemandParking implements ParkingPolicy {
+
+    private final ElevatorBank bank;
+    private final DemandPredictor predictor;
+    private final Map<Elevator, Integer> claims = new IdentityHashMap<>();
+
+    // Floors claimed by the other elevators, collected once per call
+    private final StopSet claimed = new StopSet();
+
+    private double minDemand = 1;
+    private volatile long reviewDelay = 60 * 1000;
+
+    /**
+     * Collects the floors other elevators of the bank have claimed and are
+     * still parked at or heading for
+     *
+     * @param elevator Elevator asking
+     */
+    private void collectClaims(Elevator elevator) {
+        claimed.clear();
+
+        for (Map.Entry<Elevator, Integer> claim : claims.entrySet()) {
+            Elevator car = claim.getKey();
+            int floor = claim.getValue(), pending;
+
+            if (car == elevator) {
+                continue;
+            }
+
+            pending = car.getPendingStops();
+
+            if (pending == 0 ? car.getFloor() == floor : pending == 1 && car.hasStop(floor)) {
+                claimed.add(floor);
+            }
+        }
+    }
+
+    @Override
+    public synchronized int parkingFloor(Elevator elevator) {
+        long now = elevator.getClock().currentTimeMillis();
+        int current = elevator.getFloor();
+        int best = StopSet.NONE;
+        double bestDemand = minDemand;
+
+        claims.remove(elevator);
+        collectClaims(elevator);
+
+        // Walks up from the current floor and then down, so that ties go to
+        // the current floor and then to the nearest floors above
+        for (int floor = current; floor <= elevator.getTopFloor(); floor++) {
+            double demand = predictor.getExpectedDemand(floor, now);
+
+            if (demand > bestDemand || (floor == current && demand >= bestDemand)) {
+                if (!claimed.contains(floor)) {
+                    best = floor;
+                    bestDemand = demand;
+                }
+            }
+        }
+
+        for (int floor = current - 1; floor >= elevator.getBottomFloor(); floor--) {
+            double demand = predictor.getExpectedDemand(floor, now);
+
+            if (demand > bestDemand && !claimed.contains(floor)) {
+                best = floor;
+                bestDemand = demand;
+            }
+        }
+
+        if (best != StopSet.NONE) {
+            claims.put(elevator, best);
+        }
+
+        return best;
+    }
+
+    @Override
+    public long getReviewDelay(Elevator elevator) {
+        return reviewDelay;
+    }
+
+    /**
+     * Sets how often an idle elevator checks if another floor now expects
+     * more demand than its own
+     *
+     * @param delay Delay in milliseconds, Elevator.IDLE to only choose the
+     *        parking floor when the elevator runs out of stops
+     */
+    public void setReviewDelay(long delay) {
+        this.reviewDelay = delay;
+    }
+
+    /**
+     * Sets the expected demand a floor needs before an elevator parks there
+     *
+     * @param minDemand Decayed arrivals around the time of day, 1 by default
+     */
+    public synchronized void setMinDemand(double minDemand) {
+        this.minDemand = minDemand;
+    }
+
+    /**
+     * Gets the predictor the parking floors are chosen with
+     *
+     * @return Demand predictor
+     */
+    public DemandPredictor getPredictor() {
+        return predictor;
+    }
+
+    /**
+     * Gets the bank the policy parks
+     *
+     * @return Elevator bank
+     */
+    public ElevatorBank getBank() {
+        return bank;
+    }
+
+    /**
+     * Demand parking learning from an existing predictor
+     *
+     * @param bank Elevator bank
+     * @param predictor Demand predictor, attached to the bank by the caller
+     */
+    public DemandParking(ElevatorBank bank, DemandPredictor predictor) {
+        this.bank = bank;
+        this.predictor = predictor;
+    }
+
+    /**
+     * Demand parking learning from the persons queued at the bank, with the
+     * default buckets and half-life
+     *
+     * @param bank Elevator bank
+     */
+    public DemandParking(ElevatorBank bank) {
+        this(bank, new DemandPredictor(bank.getBottomFloor(), bank.getTopFloor()));
+        predictor.attach(bank);
+    }
+
+}
@@ -0,0 +1,189 @@
+package elevator.elevator;
+
+/**
+ * Learns where persons arrive at which time of day, from the persons queued
+ * at the elevators
+ *
+ * Arrivals are counted per floor and per time of day bucket. A count decays
+ * exponentially with its age, so the predictor follows a building whose
+ * traffic changes over the weeks. The expected demand of a floor is the sum
+ * of the counts of the bucket of the time and of its two neighbours, so a
+ * prediction is available from the first minutes of a busy bucket.
+ */
+public class DemandPredictor {
+
+    public static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private final int bottomFloor;
+    private final int floorCount;
+
+    private final long bucketLength;
+    private final int bucketCount;
+    private final double halfLife;
+
+    // Decayed counts and the times they were last decayed to, per bucket
+    // and floor
+    private final double[] counts;
+    private final long[] updated;
+
+    /**
+     * Gets the time of day bucket of a time
+     *
+     * @param time Time in milliseconds since midnight of the first day
+     * @return Bucket
+     */
+    private int bucket(long time) {
+        return (int) (Math.floorMod(time, DAY) / bucketLength);
+    }
+
+    /**
+     * Gets the decayed count of a cell
+     *
+     * @param cell Index of the bucket and floor
+     * @param time Current time
+     * @return Count
+     */
+    private double decayed(int cell, long time) {
+        long age = time - updated[cell];
+
+        return age <= 0 ? counts[cell] : counts[cell] * Math.pow(0.5, age / halfLife);
+    }
+
+    /**
+     * Records an arrival
+     *
+     * @param floor Floor the person arrived at
+     * @param time Time of the arrival in milliseconds
+     */
+    public synchronized void record(int floor, long time) {
+        int index = floor - bottomFloor;
+
+        if (index < 0 || index >= floorCount) {
+            return;
+        }
+
+        int cell = bucket(time) * floorCount + index;
+
+        counts[cell] = decayed(cell, time) + 1;
+        updated[cell] = time;
+    }
+
+    /**
+     * Learns from every person queued at an elevator
+     *
+     * @param queuer Elevator queuer
+     */
+    public void attach(ElevatorQueuer queuer) {
+        queuer.addQueueListener(person -> record(person.getOriginFloor(), person.getQueueTime()));
+    }
+
+    /**
+     * Learns from every person queued at a bank
+     *
+     * @param bank Elevator bank
+     */
+    public void attach(ElevatorBank bank) {
+        for (int i = 0; i < bank.getCarCount(); i++) {
+            attach(bank.getQueuer(i));
+        }
+    }
+
+    /**
+     * Gets the expected demand of a floor around a time of day
+     *
+     * @param floor Floor
+     * @param time Time in milliseconds
+     * @return Decayed arrivals around the time of day
+     */
+    public synchronized double getExpectedDemand(int floor, long time) {
+        int index = floor - bottomFloor;
+
+        if (index < 0 || index >= floorCount) {
+            return 0;
+        }
+
+        int bucket = bucket(time);
+        double demand = 0;
+
+        for (int b = bucket - 1; b <= bucket + 1; b++) {
+            demand += decayed(Math.floorMod(b, bucketCount) * floorCount + index, time);
+        }
+
+        return demand;
+    }
+
+    /**
+     * Gets the expected demand of every floor around a time of day
+     *
+     * @param time Time in milliseconds
+     * @return Demand per floor, from the bottom floor up
+     */
+    public double[] getExpectedDemand(long time) {
+        double[] demand = new double[floorCount];
+
+        for (int i = 0; i < floorCount; i++) {
+            demand[i] = getExpectedDemand(bottomFloor + i, time);
+        }
+
+        return demand;
+    }
+
+    /**
+     * Gets the bottom floor
+     *
+     * @return Bottom floor
+     */
+    public int getBottomFloor() {
+        return bottomFloor;
+    }
+
+    /**
+     * Gets the top floor
+     *
+     * @return Top floor
+     */
+    public int getTopFloor() {
+        return bottomFloor + floorCount - 1;
+    }
+
+    /**
+     * Demand predictor
+     *
+     * @param bottomFloor Bottom floor
+     * @param topFloor Top floor
+     * @param bucketLength Length of a time of day bucket in milliseconds
+     * @param halfLife Time in milliseconds after which an arrival counts half
+     */
+    public DemandPredictor(int bottomFloor, int topFloor, long bucketLength, long halfLife) {
+        if (topFloor < bottomFloor) {
+            throw new IllegalArgumentException("Top floor below bottom floor");
+        }
+
+        if (bucketLength <= 0 || DAY % bucketLength != 0) {
+            throw new IllegalArgumentException("Bucket length must divide a day");
+        }
+
+        if (halfLife <= 0) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+
+        this.bottomFloor = bottomFloor;
+        this.floorCount = topFloor - bottomFloor + 1;
+        this.bucketLength = bucketLength;
+        this.bucketCount = (int) (DAY / bucketLength);
+        this.halfLife = halfLife;
+        this.counts = new double[bucketCount * floorCount];
+        this.updated = new long[counts.length];
+    }
+
+    /**
+     * Demand predictor with 15 minute buckets and a half-life of a week
+     *
+     * @param bottomFloor Bottom floor
+     * @param topFloor Top floor
+     */
+    public DemandPredictor(int bottomFloor, int topFloor) {
+        this(bottomFloor, topFloor, 15 * 60 * 1000L, 7 * DAY);
+    }
+
+}
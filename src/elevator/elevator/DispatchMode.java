@@ -0,0 +1,21 @@
+package elevator.elevator;
+
+/**
+ * How an elevator bank assigns the persons calling an elevator to its cars
+ */
+public enum DispatchMode {
+
+    /**
+     * Conventional hall calls: the car is chosen from the person's floor
+     * alone, the destination is only known once the person has boarded
+     */
+    HALL_CALL,
+
+    /**
+     * Destination dispatch: the person enters the destination at the hall,
+     * persons going to the same or nearby floors are grouped into the same
+     * car so that every trip makes fewer stops
+     */
+    DESTINATION
+
+}
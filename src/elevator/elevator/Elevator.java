@@ -1,57 +1,84 @@
 package elevator.elevator;
 
-import java.util.ArrayDeque;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Deque;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
-public class Elevator implements Runnable {
-
-    private class ActionConsumerStruct {
-
-        private ElevatorAction action;
-        private Consumer<Object> consumer;
-
-        public Consumer<Object> getConsumer() {
-            return consumer;
-        }
-
-        public ElevatorAction getAction() {
-            return action;
-        }
+import elevator.simulation.SimulationClock;
 
-        public ActionConsumerStruct(ElevatorAction action, Consumer<Object> consumer) {
-            this.consumer = consumer;
-            this.action = action;
-        }
+public class Elevator implements Runnable {
 
-    }
+    /**
+     * Returned by step when the elevator has nothing to do
+     */
+    public static final long IDLE = -1;
 
     private String elevatorName;
     private volatile int floor;
+    private volatile int direction;
+    private volatile long busyTime;
+    private volatile int passengerVersion;
     private volatile boolean running = true;
     private int maxWeight = Integer.MAX_VALUE;
     private int maxPeople = Integer.MAX_VALUE;
     private int fRangeMin;
     private int fRangeMax;
     private int moveDelay;
+    private int stopDelay;
+    private boolean moved;
+
+    // Whether anyone left or boarded since the elevator last arrived at a floor
+    private volatile boolean served;
 
-    private final Deque<Integer> queue = new ArrayDeque<>();
-    private final List<Person> passengers = new LinkedList<>();
+    // Ring sequence number of the last STOP published, only used by the
+    // thread stepping the elevator
+    private long stopSequence = -1;
 
-    private final Set<ActionConsumerStruct> listeners = new HashSet<>();
+    private final AtomicBoolean idle = new AtomicBoolean();
+    private volatile SimulationClock clock = SimulationClock.SYSTEM;
+
+    private final StopSet stops = new StopSet();
+
+    // Requests not yet taken into the stop set, added to without locking.
+    // Floors outside of the atomic set's range go through the inbox.
+    private volatile AtomicStopSet pending = new AtomicStopSet(0, 63);
+    private final Queue<Integer> inbox = new ConcurrentLinkedQueue<>();
+
+    // Thread running the elevator, unparked when an idle elevator receives
+    // a request
+    private volatile Thread runner;
+
+    private final List<Person> passengers = new ArrayList<>();
+
+    // Passengers ejected by the current step, notified once the passenger
+    // lock is released. Only used by the stepping thread.
+    private final List<Person> ejected = new ArrayList<>();
+
+    private volatile ElevatorDispatcher dispatcher;
+    private volatile ElevatorEventRing eventRing;
+    private volatile ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    private volatile SchedulingStrategy strategy = SchedulingStrategy.LOOK;
+    private volatile ParkingPolicy parking = ParkingPolicy.NONE;
+
+    // Latest published state, replaced as a whole at every transition
+    private volatile ElevatorSnapshot snapshot;
+    private int publishedPassengerVersion;
 
     private final Object queueLock = new Object();
-    private final Object consumerLock = new Object();
     private final Object passengerLock = new Object();
 
     /**
@@ -61,25 +88,201 @@ public class Elevator implements Runnable {
      * @param data Data
      */
     private void callbackListeners(ElevatorAction action, Object data) {
-        int i = 1;
+        dispatcher.dispatch(action, data);
+    }
+
+    /**
+     * Notifies the listeners that the elevator stopped at its current floor,
+     * with an ElevatorStop holding the floor and the direction
+     *
+     * @return True if delivered or queued, false if the full queue of a
+     *         running dispatcher dropped it
+     */
+    private boolean callbackStop() {
+        ElevatorDispatcher current = dispatcher;
+
+        // A dispatcher shutting down drops for good, the elevator would only
+        // stop here over and over
+        return current.dispatch(ElevatorAction.STOP, new ElevatorStop(getFloor(), direction))
+                || !current.isRunning();
+    }
+
+    /**
+     * Notifies the consumers that the elevator stopped at its current floor
+     *
+     * A STOP the event ring or the dispatcher's queue drops is not lost: the
+     * floor is requested again, so the elevator stops and notifies it once
+     * more on its next step.
+     */
+    private void notifyStop() {
+        ElevatorEventRing ring = eventRing;
+        boolean notified = true;
+
+        if (ring != null) {
+            if (ring.publish(ElevatorAction.STOP, getFloor(), direction, clock.currentTimeMillis(), null)) {
+                stopSequence = ring.getPublishedCount() - 1;
+            } else {
+                notified = false;
+            }
+        }
+
+        // Next to a ring, the listeners only cost an allocation if there
+        // are any
+        if (ring == null || dispatcher.hasListeners(ElevatorAction.STOP)) {
+            notified &= callbackStop();
+        }
+
+        if (!notified) {
+            simpleRequest(getFloor());
+        }
+    }
+
+    /**
+     * Checks if the consumers have handled the last STOP, so that whoever
+     * was going to board at it has boarded. Consumers on other threads may
+     * still be catching up.
+     *
+     * @return True if handled
+     */
+    private boolean isStopHandled() {
+        ElevatorEventRing ring = eventRing;
+
+        if (ring != null && !ring.isHandled(stopSequence)) {
+            return false;
+        }
+
+        return dispatcher.getCapacity() == 0 || !dispatcher.hasListeners(ElevatorAction.STOP);
+    }
+
+    /**
+     * Notifies the consumers that a passenger left the elevator
+     *
+     * @param person Passenger
+     */
+    private void notifyEject(Person person) {
+        ElevatorEventRing ring = eventRing;
+
+        if (ring == null) {
+            callbackListeners(ElevatorAction.EJECT, person);
+            return;
+        }
+
+        ring.publish(ElevatorAction.EJECT, getFloor(), direction, person.getEjectTime(), person);
+
+        if (dispatcher.hasListeners(ElevatorAction.EJECT)) {
+            callbackListeners(ElevatorAction.EJECT, person);
+        }
+    }
+
+    /**
+     * Publishes a snapshot of the current state, the passenger list is only
+     * copied if it changed since the previous snapshot
+     */
+    private void publish() {
+        // Same lock order as ejecting, which publishes while holding the
+        // passenger lock
+        synchronized (passengerLock) {
+            synchronized (queueLock) {
+                ElevatorSnapshot previous = snapshot;
+                List<Person> list = previous.getPassengers();
+
+                if (passengerVersion != publishedPassengerVersion) {
+                    list = Collections.unmodifiableList(new ArrayList<>(passengers));
+                    publishedPassengerVersion = passengerVersion;
+                }
+
+                snapshot = new ElevatorSnapshot(previous.getVersion() + 1,
+                        floor, direction, list, stops.toArray());
+            }
+        }
+    }
+
+    /**
+     * Takes the floors requested since the last call into the stop set, the
+     * queue lock must be held
+     *
+     * @return True if any floors were taken
+     */
+    private boolean drainRequests() {
+        AtomicStopSet pending = this.pending;
+        int current = getFloor();
+        boolean drained = false;
+        Integer floor;
+
+        // Requests made after the current floor was notified notify it again
+        if (pending.remove(current)) {
+            stops.add(current);
+            moved = false;
+            drained = true;
+        }
+
+        if (pending.drainTo(stops) > 0) {
+            drained = true;
+        }
 
-        for (ActionConsumerStruct listener : listeners) {
-            if (listener.getAction() == action) {
-                new Thread(() -> {
-                    listener.getConsumer().accept(data);
-                }, String.format("Elevator%sListener%d", getElevatorName(), i)).start();
+        while ((floor = inbox.poll()) != null) {
+            if (floor == current) {
+                moved = false;
             }
 
-            i++;
+            stops.add(floor);
+            drained = true;
         }
+
+        return drained;
+    }
+
+    /**
+     * Checks if any floors were requested since the requests were last taken
+     *
+     * @return True if there are new requests
+     */
+    private boolean hasRequests() {
+        return !pending.isEmpty() || !inbox.isEmpty();
+    }
+
+    /**
+     * Wakes up the elevator if it was idle: unparks its thread and notifies
+     * the START listeners
+     */
+    private void wakeUp() {
+        if (idle.compareAndSet(true, false)) {
+            LockSupport.unpark(runner);
+            callbackListeners(ElevatorAction.START, getFloor());
+        }
+    }
+
+    /**
+     * Waits for the given time, returns early if the elevator is stopped
+     *
+     * @param delay Delay in milliseconds
+     * @return False if the thread was interrupted
+     */
+    private boolean pause(long delay) {
+        long deadline = System.nanoTime() + delay * 1000000, remaining;
+
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+
+            // Parking returns at once while the interrupt flag is set
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
      * Attempts to requests a single floor
      *
+     * The request is taken into the stops by the next step or getStops. The
+     * snapshot shows it once the elevator publishes its state again, at the
+     * latest after its next move, stop or boarding.
+     *
      * @param floor Floor
-     * @return True if the floor was successfully queued, false if the the floor
-     *         was not queued or the floor was already queued
+     * @return True if the floor was successfully queued, false if a request
+     *         for the floor is already pending
      */
     private boolean simpleRequest(int floor) {
         if ((fRangeMin != 0 && fRangeMax != 0)
@@ -87,22 +290,42 @@ public class Elevator implements Runnable {
             throw new IllegalArgumentException(String.format("Outside range (%d, %d)", fRangeMin, fRangeMax));
         }
 
-        synchronized (queueLock) {
-            // Ensuring uniqueness
-            if (!queue.contains(floor)) {
-                return queue.offerLast(floor);
-            } else {
-                return false;
-            }
+        AtomicStopSet pending = this.pending;
+
+        if (pending.covers(floor)) {
+            return pending.add(floor);
         }
+
+        // The stop set removes duplicates once the inbox is drained
+        return inbox.offer(floor);
+    }
+
+    /**
+     * Gets the next floor to head for, a requested current floor first and
+     * otherwise the one picked by the scheduling strategy
+     *
+     * @return Next floor or StopSet.NONE
+     */
+    private int nextStop() {
+        int floor = getFloor();
+
+        if (stops.contains(floor)) {
+            return floor;
+        }
+
+        return strategy.nextStop(stops, floor, direction, fRangeMin, fRangeMax);
     }
 
     /**
      * Ejects the passengers that have their stop at the current floor
+     *
+     * The event ring copies the passenger, so its consumers never hold one.
+     *
+     * The passengers are notified after the passenger lock is released, as
+     * the event ring may wait for consumers that board passengers.
      */
     private boolean ejectPassengers() {
         Person person;
-        boolean exited = false;
 
         synchronized (passengerLock) {
             Iterator<Person> it = passengers.iterator();
@@ -112,14 +335,30 @@ public class Elevator implements Runnable {
 
                 // Ejects the passenger and removes it from the list
                 if (person.getTargetFloor() == getFloor()) {
-                    callbackListeners(ElevatorAction.EJECT, person);
+                    person.setEjectTime(clock.currentTimeMillis());
                     it.remove();
-                    exited = true;
+                    ejected.add(person);
+
+                    passengerVersion++;
+                    served = true;
                 }
             }
+
+            if (ejected.isEmpty()) {
+                return false;
+            }
+
+            publish();
+        }
+
+        for (int i = 0; i < ejected.size(); i++) {
+            person = ejected.get(i);
+            notifyEject(person);
         }
 
-        return exited;
+        ejected.clear();
+
+        return true;
     }
 
     /**
@@ -129,89 +368,62 @@ public class Elevator implements Runnable {
      * @param listener Listener
      */
     public void addListener(ElevatorAction action, Consumer<Object> listener) {
-        listeners.add(new ActionConsumerStruct(action, listener));
+        dispatcher.addListener(action, listener);
     }
 
     /**
-     * Calculates and sets the prioirity of the elevator stops
+     * Removes a floor listener
+     *
+     * @param action Action
+     * @param listener Listener
+     * @return True if the listener was registered
      */
-    public void prioritize() {
-        if (queue.isEmpty()) {
-            return;
-        }
-
-        int direction = (int) Math.signum(queue.peek() - getLastFloor());
-
-        // Gets slices of the queue containing floors above and below the current floor
-        // and orders them by descending and ascending order respectively
-        synchronized (queueLock) {
-            LinkedList<Integer> above = (LinkedList<Integer>) queue.stream()
-                    .filter(floor -> floor > getLastFloor())
-                    .sorted((a, b) -> a > b ? 1 : -1)
-                    .collect(Collectors.toCollection(LinkedList::new)),
-
-                    below = (LinkedList<Integer>) queue.stream()
-                            .filter(floor -> floor < getLastFloor())
-                            .sorted((a, b) -> a < b ? 1 : -1)
-                            .collect(Collectors.toCollection(LinkedList::new));
-
-            queue.clear();
-
-            // Prioritize in the given order
-            if (direction == 1 || direction == 0) {
-                queue.addAll(above);
-                queue.addAll(below);
-            } else if (direction == -1) {
-                queue.addAll(below);
-                queue.addAll(above);
-            }
-        }
+    public boolean removeListener(ElevatorAction action, Consumer<Object> listener) {
+        return dispatcher.removeListener(action, listener);
     }
 
     /**
      * Attempts to requests a single floor
      *
      * @param floor Floor
-     * @return True if the floor was successfully queued, false if the the floor
-     *         was not queued or the floor was already queued
+     * @return True if the floor was successfully queued, false if a request
+     *         for the floor is already pending
      */
     public boolean request(int floor) {
         boolean isSuccess = simpleRequest(floor);
 
-        prioritize();
-
-        synchronized (consumerLock) {
-            consumerLock.notify();
+        if (isSuccess) {
+            wakeUp();
         }
 
         return isSuccess;
     }
 
     /**
-     * Requests multiple floors
+     * Requests multiple floors, shown by the snapshot as late as a single
+     * request
      *
      * @param floors Floors
      * @return True if any floors were added
      */
     public boolean request(Collection<? extends Integer> floors) {
-        synchronized (consumerLock) {
-            Iterator<? extends Integer> it = floors.iterator();
-            boolean success = false;
-            int floor;
+        Iterator<? extends Integer> it = floors.iterator();
+        boolean success = false;
+        int floor;
 
-            while (it.hasNext()) {
-                floor = it.next();
+        while (it.hasNext()) {
+            floor = it.next();
 
-                if (simpleRequest(floor)) {
-                    success = true;
-                }
+            if (simpleRequest(floor)) {
+                success = true;
             }
+        }
 
-            prioritize();
-            consumerLock.notify();
-
-            return success;
+        if (success) {
+            wakeUp();
         }
+
+        return success;
     }
 
     /**
@@ -221,21 +433,105 @@ public class Elevator implements Runnable {
      * @param request Automatically request floor
      */
     public boolean addPassenger(Person passenger, boolean request) {
+        boolean isSuccess = false;
+
         synchronized (passengerLock) {
             // Checks if the elevator can support this person
             if ((getTotalWeight() + passenger.getWeight() <= getMaxWeight())
                     && (passengers.size() + 1 <= getMaxPeople())) {
-                boolean isSuccess = passengers.add(passenger);
+                isSuccess = passengers.add(passenger);
+
+                if (isSuccess) {
+                    passengerVersion++;
+                    served = true;
+                    publish();
+                    passenger.setBoardTime(clock.currentTimeMillis());
+                    callbackListeners(ElevatorAction.BOARD, passenger);
+                }
+            }
+        }
+
+        // Requested outside of the passenger lock, which may block on the
+        // wake lock
+        if (isSuccess && request) {
+            request(passenger.getTargetFloor());
+        }
+
+        return isSuccess;
+    }
+
+    /**
+     * Adds as many passengers as the weight and headcount limits allow, in
+     * the order given, as a single operation. A person too heavy to fit is
+     * skipped, lighter persons after it may still board.
+     *
+     * @param candidates Persons wanting to board
+     * @param request Automatically request the floors of the passengers that
+     *        boarded
+     * @return Persons that boarded, in the order given
+     */
+    public List<Person> addPassengers(Iterable<Person> candidates, boolean request) {
+        return addPassengers(StopSet.NONE, candidates, request);
+    }
+
+    /**
+     * Adds as many passengers as the weight and headcount limits allow, in
+     * the order given, as long as the elevator is still at the floor they
+     * wait at. Nobody boards an elevator that has already left.
+     *
+     * @param floor Floor the persons wait at, StopSet.NONE for any floor
+     * @param candidates Persons wanting to board
+     * @param request Automatically request the floors of the passengers that
+     *        boarded
+     * @return Persons that boarded, in the order given
+     */
+    public List<Person> addPassengers(int floor, Iterable<Person> candidates, boolean request) {
+        List<Person> boarded = new ArrayList<>();
+        long now = clock.currentTimeMillis();
 
-                if (isSuccess && request) {
-                    request(passenger.getTargetFloor());
+        synchronized (passengerLock) {
+            if (floor != StopSet.NONE && floor != getFloor()) {
+                return boarded;
+            }
+
+            int weight = getTotalWeight(),
+                    maxWeight = getMaxWeight(),
+                    room = getMaxPeople() - passengers.size();
+
+            for (Person person : candidates) {
+                if (room == 0) {
+                    break;
                 }
 
-                return isSuccess;
-            } else {
-                return false;
+                if (weight + person.getWeight() <= maxWeight) {
+                    passengers.add(person);
+                    boarded.add(person);
+
+                    weight += person.getWeight();
+                    room--;
+                }
+            }
+
+            if (!boarded.isEmpty()) {
+                passengerVersion++;
+                served = true;
+                publish();
+
+                for (Person person : boarded) {
+                    person.setBoardTime(now);
+                    callbackListeners(ElevatorAction.BOARD, person);
+                }
             }
         }
+
+        if (request && !boarded.isEmpty()) {
+            Set<Integer> targets = new LinkedHashSet<>();
+            boarded.forEach(person -> targets.add(person.getTargetFloor()));
+
+            request(targets);
+        }
+
+        return boarded;
     }
 
     /**
@@ -249,51 +545,234 @@ public class Elevator implements Runnable {
         synchronized (passengerLock) {
             passengers.forEach(person -> person.setFloor(getFloor()));
         }
+
+        publish();
     }
 
     /**
-     * Moves the elevator to the destinations in the queue
+     * Advances the elevator by a single action: picks the next requested
+     * floor, moves one floor towards it or ejects the passengers once there
+     *
+     * @return Delay in milliseconds before the next step, or IDLE if no floors
+     *         are requested
      */
-    @Override
-    public void run() {
-        this.running = true;
+    public long step() {
+        boolean notified;
+        int next;
 
-        while (running) {
-            while (queue.isEmpty() && running) {
-                try {
-                    synchronized (consumerLock) {
-                        consumerLock.wait();
-                    }
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    return;
-                }
+        synchronized (queueLock) {
+            drainRequests();
+
+            next = nextStop();
+            notified = moved;
+
+            if (next == getFloor()) {
+                stops.remove(next);
             }
 
-            int floor, direction;
+            moved = next != getFloor() && next != StopSet.NONE;
+        }
+
+        if (next == StopSet.NONE) {
+            int park = parking.parkingFloor(this);
 
-            while (!queue.isEmpty() && running) {
+            // Heads for the parking floor rather than waiting here, also when
+            // reviewing the parking floor while idle
+            if (park != StopSet.NONE && park != getFloor()) {
                 synchronized (queueLock) {
-                    floor = queue.poll();
+                    stops.add(park);
                 }
 
-                direction = (int) Math.signum(floor - getFloor());
+                idle.set(false);
 
-                while (getFloor() != floor) {
-                    move(direction);
+                return 0;
+            }
 
-                    callbackListeners(ElevatorAction.STOP, getFloor());
+            this.direction = 0;
+            idle.set(true);
+            publish();
 
-                    try {
-                        Thread.sleep(getMoveDelay());
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
+            // A request made before the elevator was marked idle did not
+            // wake it up, continues if one arrived in the meantime
+            if (hasRequests() && idle.compareAndSet(true, false)) {
+                return 0;
+            }
+
+            // Steps again once the policy wants to review the parking
+            // floor, a request still wakes the elevator up before that
+            long review = parking.getReviewDelay(this);
+
+            return review > 0 ? review : IDLE;
+        }
+
+        if (getFloor() != next) {
+            this.direction = (int) Math.signum(next - getFloor());
+
+            move(direction);
+            served = false;
+
+            // Passengers leave before the waiting persons board
+            ejectPassengers();
+            notifyStop();
+            busyTime += getMoveDelay();
+
+            return getMoveDelay();
+        }
+
+        // The stop was removed
+        publish();
+
+        ejectPassengers();
+
+        // Lets the persons at the current floor board, unless the elevator
+        // just arrived and they have already been notified
+        if (!notified) {
+            notifyStop();
+        } else if (!served && isStopHandled()) {
+            // Nobody here goes the elevator's way, passes on without
+            // opening the doors. Keeps them open while a consumer on
+            // another thread may still board someone.
+            return 0;
+        }
+
+        // Keeps the doors open before heading on
+        busyTime += getStopDelay();
+
+        return getStopDelay();
+    }
+
+    /**
+     * Writes the elevator's state to a checkpoint: its position, stops,
+     * passengers and limits. The elevator must not be stepped meanwhile.
+     *
+     * @param out Output
+     * @throws IOException On failure
+     */
+    public void writeState(DataOutput out) throws IOException {
+        synchronized (passengerLock) {
+            synchronized (queueLock) {
+                drainRequests();
+
+                out.writeInt(floor);
+                out.writeInt(direction);
+                out.writeBoolean(moved);
+                out.writeBoolean(served);
+                out.writeBoolean(idle.get());
+                out.writeLong(busyTime);
+
+                out.writeInt(maxWeight);
+                out.writeInt(maxPeople);
+                out.writeInt(fRangeMin);
+                out.writeInt(fRangeMax);
+                out.writeInt(moveDelay);
+                out.writeInt(stopDelay);
+
+                int[] requested = stops.toArrayByAge();
+                out.writeInt(requested.length);
+
+                for (int stop : requested) {
+                    out.writeInt(stop);
                 }
 
-                ejectPassengers();
+                out.writeInt(passengers.size());
+
+                for (Person person : passengers) {
+                    Person.writeState(person, out);
+                }
             }
+        }
+    }
+
+    /**
+     * Replaces the elevator's state with one written by writeState, without
+     * notifying the listeners
+     *
+     * @param in Input
+     * @throws IOException On failure
+     */
+    public void readState(DataInput in) throws IOException {
+        synchronized (passengerLock) {
+            synchronized (queueLock) {
+                setFloor(in.readInt());
+                direction = in.readInt();
+                moved = in.readBoolean();
+                served = in.readBoolean();
+                idle.set(in.readBoolean());
+                busyTime = in.readLong();
+
+                maxWeight = in.readInt();
+                maxPeople = in.readInt();
+                setFloorRange(in.readInt(), in.readInt());
+                moveDelay = in.readInt();
+                stopDelay = in.readInt();
+
+                // Requests made before the restore are dropped
+                drainRequests();
+                stops.clear();
+
+                for (int i = in.readInt(); i > 0; i--) {
+                    stops.add(in.readInt());
+                }
+
+                passengers.clear();
+
+                for (int i = in.readInt(); i > 0; i--) {
+                    passengers.add(Person.readState(in));
+                }
+
+                passengerVersion++;
+                publish();
+            }
+        }
+    }
+
+    /**
+     * Starts the elevator on its own thread, of the elevator's execution mode
+     *
+     * @return Started thread
+     */
+    public Thread start() {
+        Thread thread = executionMode.newThread(this, "Elevator" + getElevatorName());
+        thread.start();
+
+        return thread;
+    }
+
+    /**
+     * Moves the elevator to the requested floors
+     */
+    @Override
+    public void run() {
+        this.runner = Thread.currentThread();
+        this.running = true;
 
+        long delay;
+
+        while (running) {
+            delay = step();
+
+            if (delay == IDLE || (delay > 0 && idle.get())) {
+                // Parks until a request clears the idle flag, an unpark
+                // arriving before the park is not lost. An idle elevator
+                // reviewing its parking floor parks until the review at most.
+                long deadline = System.nanoTime() + delay * 1000000, remaining;
+
+                while (running && idle.get()) {
+                    if (delay == IDLE) {
+                        LockSupport.park(this);
+                    } else if ((remaining = deadline - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(this, remaining);
+                    } else {
+                        break;
+                    }
+
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+            } else if (delay > 0 && !pause(delay)) {
+                return;
+            }
         }
     }
 
@@ -303,9 +782,11 @@ public class Elevator implements Runnable {
      * @return Total weight
      */
     public int getTotalWeight() {
-        return passengers.stream()
-                .mapToInt(Person::getWeight)
-                .reduce(0, (a, b) -> a + b);
+        synchronized (passengerLock) {
+            return passengers.stream()
+                    .mapToInt(Person::getWeight)
+                    .reduce(0, (a, b) -> a + b);
+        }
     }
 
     /**
@@ -327,18 +808,98 @@ public class Elevator implements Runnable {
     }
 
     /**
-     * Gets the last floor in the elevator queue
+     * Gets the last floor of the elevator's current sweep, where it turns
+     * around or stops
      *
      * @return Last floor
      */
     public final int getLastFloor() {
-        if (queue.isEmpty()) {
-            return queue.peekLast();
-        } else {
-            return getFloor();
+        synchronized (queueLock) {
+            drainRequests();
+
+            int last = direction >= 0 ? stops.highest() : stops.lowest();
+
+            if (last == StopSet.NONE || Integer.signum(last - getFloor()) == -direction) {
+                return getFloor();
+            }
+
+            return last;
+        }
+    }
+
+    /**
+     * Gets the farthest requested floor in a direction
+     *
+     * @param direction Direction, 1 for the highest and -1 for the lowest
+     * @return Floor, StopSet.NONE if there are no stops
+     */
+    public final int getFarthestStop(int direction) {
+        synchronized (queueLock) {
+            drainRequests();
+
+            return direction > 0 ? stops.highest() : stops.lowest();
+        }
+    }
+
+    /**
+     * Checks if a floor is requested
+     *
+     * @param floor Floor
+     * @return True if the elevator stops there
+     */
+    public final boolean hasStop(int floor) {
+        synchronized (queueLock) {
+            drainRequests();
+
+            return stops.contains(floor);
+        }
+    }
+
+    /**
+     * Gets the amount of requested floors
+     *
+     * @return Pending stops
+     */
+    public final int getPendingStops() {
+        synchronized (queueLock) {
+            drainRequests();
+
+            return stops.size();
         }
     }
 
+    /**
+     * Gets the requested floors
+     *
+     * @return Pending stops in ascending order
+     */
+    public final int[] getStops() {
+        synchronized (queueLock) {
+            drainRequests();
+
+            return stops.toArray();
+        }
+    }
+
+    /**
+     * Gets the elevator's direction of travel
+     *
+     * @return 1 when moving up, -1 when moving down, 0 when idle
+     */
+    public final int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the total time the elevator has been busy: moving between floors
+     * and keeping its doors open at stops
+     *
+     * @return Busy time in milliseconds
+     */
+    public final long getBusyTime() {
+        return busyTime;
+    }
+
     /**
      * Gets the elevator's current floor
      * 
@@ -396,10 +957,95 @@ public class Elevator implements Runnable {
     /**
      * Gets the elevator's active passengers
      *
-     * @return Active passengers
+     * @return Unmodifiable list of active passengers
      */
     public final List<Person> getPassengers() {
-        return new ArrayList<>(passengers);
+        return snapshot.getPassengers();
+    }
+
+    /**
+     * Gets the latest published state of the elevator, consistent and safe
+     * to read without locking. Its stops may lag behind requests made since
+     * the elevator last published.
+     *
+     * @return Snapshot
+     */
+    public final ElevatorSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the clock used for timestamps
+     *
+     * @return Clock
+     */
+    public final SimulationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Gets the execution mode used by the elevator's threads
+     *
+     * @return Execution mode
+     */
+    public final ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Gets the strategy ordering the elevator's stops
+     *
+     * @return Scheduling strategy
+     */
+    public final SchedulingStrategy getSchedulingStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the policy choosing where the elevator waits once idle
+     *
+     * @return Parking policy
+     */
+    public final ParkingPolicy getParkingPolicy() {
+        return parking;
+    }
+
+    /**
+     * Gets the ring the elevator publishes its STOP and EJECT events to
+     *
+     * @return Event ring, null if the events only go to the listeners
+     */
+    public final ElevatorEventRing getEventRing() {
+        return eventRing;
+    }
+
+    /**
+     * Gets the elevator's event dispatcher
+     *
+     * @return Event dispatcher
+     */
+    public final ElevatorDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Gets the amount of active passengers
+     *
+     * @return Passenger count
+     */
+    public final int getPassengerCount() {
+        synchronized (passengerLock) {
+            return passengers.size();
+        }
+    }
+
+    /**
+     * Gets a counter that changes whenever a passenger boards or leaves
+     *
+     * @return Passenger version
+     */
+    public final int getPassengerVersion() {
+        return passengerVersion;
     }
 
     /**
@@ -411,11 +1057,21 @@ public class Elevator implements Runnable {
         return moveDelay;
     }
 
+    /**
+     * Gets the time the elevator stays at a requested floor
+     *
+     * @return Stop delay in milliseconds
+     */
+    public int getStopDelay() {
+        return stopDelay;
+    }
+
     /**
      * Stops the elevator from running
      */
     public void stopRunning() {
         this.running = false;
+        LockSupport.unpark(runner);
     }
 
     /**
@@ -434,8 +1090,16 @@ public class Elevator implements Runnable {
      * @param max Top floor
      */
     public final void setFloorRange(int min, int max) {
-        fRangeMin = min;
-        fRangeMax = max;
+        synchronized (queueLock) {
+            AtomicStopSet previous = pending;
+
+            fRangeMin = min;
+            fRangeMax = max;
+            pending = new AtomicStopSet(min, max);
+
+            // Requests racing the swap may still land in the previous set
+            previous.drainTo(stops);
+        }
     }
 
     /**
@@ -450,12 +1114,100 @@ public class Elevator implements Runnable {
     /**
      * Sets the elevator's maximum amount of people
      * 
-     * @param limit Limit
+     * @param limit Limit, at least 1
      */
     public final void setMaxPeople(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("An elevator must take at least one person");
+        }
+
         this.maxPeople = limit;
     }
 
+    /**
+     * Sets the elevator's event dispatcher, the listeners of the previous
+     * dispatcher are carried over
+     *
+     * @param dispatcher Event dispatcher
+     */
+    public final void setDispatcher(ElevatorDispatcher dispatcher) {
+        ElevatorDispatcher previous = this.dispatcher;
+
+        previous.copyListenersTo(dispatcher);
+        this.dispatcher = dispatcher;
+        previous.shutdown();
+    }
+
+    /**
+     * Sets the ring the elevator publishes its STOP and EJECT events to, set
+     * before the elevator is started or attached to a simulation
+     *
+     * Only the thread stepping the elevator produces these events, which
+     * makes it the ring's single producer. They still reach the listeners
+     * registered for them, but are no longer dispatched when there are none,
+     * so a consumer moved to the ring gets them without any allocation.
+     * START and BOARD are raised by the requesting and the boarding threads
+     * and always go through the dispatcher.
+     *
+     * @param ring Event ring, null to only notify the listeners
+     */
+    public final void setEventRing(ElevatorEventRing ring) {
+        this.eventRing = ring;
+    }
+
+    /**
+     * Sets the execution mode used by the elevator's threads, a queued event
+     * dispatcher is replaced by one running in the same mode
+     *
+     * @param mode Execution mode
+     */
+    public final void setExecutionMode(ExecutionMode mode) {
+        ElevatorDispatcher current = dispatcher;
+
+        this.executionMode = mode;
+
+        if (current.getCapacity() > 0 && current.getExecutionMode() != mode) {
+            setDispatcher(new ElevatorDispatcher(elevatorName, current.getCapacity(), mode));
+        }
+    }
+
+    /**
+     * Sets the strategy ordering the elevator's stops, takes effect at the
+     * elevator's next step
+     *
+     * @param strategy Scheduling strategy
+     */
+    public final void setSchedulingStrategy(SchedulingStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Scheduling strategy can't be null");
+        }
+
+        this.strategy = strategy;
+    }
+
+    /**
+     * Sets the policy choosing where the elevator waits once it has no stops
+     * left, it waits at its last stop by default
+     *
+     * @param parking Parking policy
+     */
+    public final void setParkingPolicy(ParkingPolicy parking) {
+        if (parking == null) {
+            throw new IllegalArgumentException("Parking policy can't be null");
+        }
+
+        this.parking = parking;
+    }
+
+    /**
+     * Sets the clock used for timestamps
+     *
+     * @param clock Clock
+     */
+    public final void setClock(SimulationClock clock) {
+        this.clock = clock;
+    }
+
     /**
      * Sets the elevator's movement delay (speed)
      *
@@ -465,12 +1217,21 @@ public class Elevator implements Runnable {
         this.moveDelay = moveDelay;
     }
 
+    /**
+     * Sets the time the elevator stays at a requested floor while the
+     * passengers leave and board, 0 by default
+     *
+     * @param stopDelay Stop delay in milliseconds
+     */
+    public void setStopDelay(int stopDelay) {
+        this.stopDelay = stopDelay;
+    }
+
     /**
      * Elevator
      */
     public Elevator() {
-        this.elevatorName = "?";
-        setFloor(0);
+        this(0, "?");
     }
 
     /**
@@ -479,8 +1240,7 @@ public class Elevator implements Runnable {
      * @param floor Starting floor
      */
     public Elevator(int floor) {
-        this();
-        setFloor(floor);
+        this(floor, "?");
     }
 
     /**
@@ -489,8 +1249,7 @@ public class Elevator implements Runnable {
      * @param name Elevator name
      */
     public Elevator(String name) {
-        setFloor(0);
-        this.elevatorName = name;
+        this(0, name);
     }
 
     /**
@@ -502,6 +1261,8 @@ public class Elevator implements Runnable {
     public Elevator(int floor, String name) {
         setFloor(floor);
         this.elevatorName = name;
+        this.snapshot = new ElevatorSnapshot(floor);
+        this.dispatcher = new ElevatorDispatcher(name);
     }
 
 }
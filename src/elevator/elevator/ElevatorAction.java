@@ -2,6 +2,6 @@ package elevator.elevator;
 
 public enum ElevatorAction {
 
-    START, STOP, EJECT
+    START, STOP, BOARD, EJECT
 
 }
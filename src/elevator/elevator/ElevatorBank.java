@@ -0,0 +1,585 @@
+package elevator.elevator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import elevator.simulation.SimulationClock;
+
+/**
+ * Group of elevators serving the same floors through one shared hall call
+ * queue, every hall call is assigned to the elevator with the lowest cost
+ *
+ * In destination dispatch mode the cost also accounts for the stops the
+ * person's destination adds to the trip of the elevator, so that persons
+ * going to the same or nearby floors ride together.
+ *
+ * An assignment is not final: when an elevator leaves a call behind, full or
+ * heading the other way, the call is handed to whichever elevator is then
+ * best suited to serve it.
+ */
+public class ElevatorBank implements HallCallQueue {
+
+    private final String name;
+    private final List<Elevator> cars = new ArrayList<>();
+    private final List<ElevatorQueuer> queuers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final List<ElevatorEventRing.Cursor> queuerCursors = new ArrayList<>();
+
+    private final AtomicLongArray assigned;
+
+    // Targets of a hall call, per thread as calls are assigned on every
+    // queueing thread
+    private final ThreadLocal<int[]> waitingTargets = ThreadLocal.withInitial(() -> new int[16]);
+
+    private volatile ElevatorCostFunction costFunction = ElevatorCostFunction.DEFAULT;
+    private volatile DispatchMode dispatchMode = DispatchMode.HALL_CALL;
+    private volatile ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    private volatile long startTime = -1;
+
+    /**
+     * Estimates the cost the person's destination adds to the elevator's
+     * trip: nothing if the elevator already stops there, otherwise an extra
+     * stop that delays every rider going further, plus the floors the trip
+     * is extended by
+     *
+     * The riders going further are the persons of the same hall call and,
+     * if the elevator picks the person up on its way, its passengers.
+     *
+     * @param car Elevator index
+     * @param person Person
+     * @return Cost in floors travelled
+     */
+    private double destinationCost(int car, Person person) {
+        Elevator elevator = cars.get(car);
+        int origin = person.getFloor(),
+                target = person.getTargetFloor(),
+                direction = target < origin ? -1 : 1,
+                floor = elevator.getFloor(),
+                reach = origin,
+                beyond = 0;
+        int[] targets = waitingTargets.get();
+        int waiting = queuers.get(car).getWaitingTargets(origin, direction, targets);
+        boolean committed = false;
+
+        if (waiting > targets.length) {
+            targets = new int[Integer.highestOneBit(waiting) << 1];
+            waitingTargets.set(targets);
+            waiting = queuers.get(car).getWaitingTargets(origin, direction, targets);
+        }
+
+        // A group larger than the car has to wait for another round trip
+        double cost = (double) (waiting / elevator.getMaxPeople()) * 2 * elevator.getFloorCount();
+
+        for (int i = 0, n = Math.min(waiting, targets.length); i < n; i++) {
+            int stop = targets[i];
+
+            committed |= stop == target;
+            reach = direction > 0 ? Math.max(reach, stop) : Math.min(reach, stop);
+            beyond += Integer.signum(stop - target) == direction ? 1 : 0;
+        }
+
+        // The elevator's own stops and passengers are on the same trip if it
+        // picks the person up on its way
+        if (elevator.getDirection() == 0
+                || (elevator.getDirection() == direction && Integer.signum(origin - floor) != -direction)) {
+            int last = elevator.getFarthestStop(direction);
+
+            if (last != StopSet.NONE && Integer.signum(last - reach) == direction) {
+                reach = last;
+            }
+
+            committed |= elevator.hasStop(target);
+
+            List<Person> riders = elevator.getPassengers();
+
+            for (int i = 0; i < riders.size(); i++) {
+                beyond += Integer.signum(riders.get(i).getTargetFloor() - target) == direction ? 1 : 0;
+            }
+        }
+
+        if (committed) {
+            return cost;
+        }
+
+        // Floors the trip is extended by past the farthest floor it reaches
+        int extension = Math.max(0, (target - reach) * direction);
+        double stop = 1 + (double) elevator.getStopDelay() / Math.max(1, elevator.getMoveDelay());
+
+        return cost + stop * (1 + beyond) + 2 * extension;
+    }
+
+    /**
+     * Selects the elevator best suited to serve the person
+     *
+     * @param person Person
+     * @return Elevator index
+     */
+    public int selectCar(Person person) {
+        ElevatorCostFunction function = costFunction;
+        boolean destination = dispatchMode == DispatchMode.DESTINATION;
+        double bestCost = Double.MAX_VALUE, cost;
+        int best = -1;
+
+        for (int i = 0; i < cars.size(); i++) {
+            cost = function.cost(cars.get(i), person);
+
+            if (destination && cost != Double.MAX_VALUE) {
+                cost += destinationCost(i, person);
+            }
+
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = i;
+            }
+        }
+
+        return best >= 0 ? best : leastLoadedCar();
+    }
+
+    /**
+     * Gets the elevator with the lowest load, for a call no elevator can
+     * take right now. Of equally loaded elevators, the one with the fewest
+     * pending stops is likely to have room first.
+     *
+     * @return Elevator index
+     */
+    private int leastLoadedCar() {
+        double bestLoad = Double.MAX_VALUE, load;
+        int best = 0, bestStops = Integer.MAX_VALUE, stops;
+
+        for (int i = 0; i < cars.size(); i++) {
+            Elevator car = cars.get(i);
+
+            load = Math.max(
+                    (double) car.getPassengerCount() / car.getMaxPeople(),
+                    (double) car.getTotalWeight() / car.getMaxWeight());
+            stops = car.getPendingStops();
+
+            if (load < bestLoad || (load == bestLoad && stops < bestStops)) {
+                bestLoad = load;
+                bestStops = stops;
+                best = i;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Queues a person at the elevator best suited to serve the person
+     *
+     * @param person Person
+     */
+    @Override
+    public void queue(Person person) {
+        int car = selectCar(person);
+
+        assigned.incrementAndGet(car);
+        queuers.get(car).queue(person);
+    }
+
+    /**
+     * Hands a call an elevator left persons of behind to the elevator now
+     * best suited to serve it, if that is another elevator
+     *
+     * @param car Index of the elevator that left the call behind
+     * @param floor Floor
+     * @param direction Direction of the call, 1 for up and -1 for down
+     */
+    private void reassign(int car, int floor, int direction) {
+        List<Person> calls = queuers.get(car).getFloorQueue(floor, direction);
+
+        if (calls.isEmpty()) {
+            return;
+        }
+
+        int best = selectCar(calls.get(0));
+
+        if (best == car) {
+            return;
+        }
+
+        ElevatorQueuer target = queuers.get(best);
+
+        for (Person person : queuers.get(car).withdraw(floor, direction)) {
+            assigned.incrementAndGet(best);
+            target.transfer(person);
+        }
+    }
+
+    /**
+     * Starts every elevator on its own thread, of the bank's execution mode
+     */
+    public void start() {
+        synchronized (threads) {
+            if (!threads.isEmpty()) {
+                return;
+            }
+
+            startTime = getClock().currentTimeMillis();
+
+            for (ElevatorEventRing.Cursor cursor : queuerCursors) {
+                if (!cursor.isRunning()) {
+                    cursor.start(executionMode);
+                }
+            }
+
+            for (Elevator car : cars) {
+                threads.add(car.start());
+            }
+        }
+    }
+
+    /**
+     * Stops every elevator from running, and the threads of the queuers on
+     * event rings once they have handled the published events
+     */
+    public void stopRunning() {
+        synchronized (threads) {
+            cars.forEach(Elevator::stopRunning);
+            queuerCursors.forEach(ElevatorEventRing.Cursor::stop);
+            threads.clear();
+        }
+    }
+
+    /**
+     * Writes the bank's own state to a checkpoint, the assigned hall calls
+     * and the start time. The elevators and their queues are written
+     * separately.
+     *
+     * @param out Output
+     * @throws IOException On failure
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(cars.size());
+        out.writeLong(startTime);
+
+        for (int i = 0; i < cars.size(); i++) {
+            out.writeLong(assigned.get(i));
+        }
+    }
+
+    /**
+     * Replaces the bank's own state with one written by writeState
+     *
+     * @param in Input
+     * @throws IOException On failure or if the car count differs
+     */
+    public void readState(DataInput in) throws IOException {
+        if (in.readInt() != cars.size()) {
+            throw new IOException("Elevator count of bank " + name + " differs");
+        }
+
+        startTime = in.readLong();
+
+        for (int i = 0; i < cars.size(); i++) {
+            assigned.set(i, in.readLong());
+        }
+    }
+
+    /**
+     * Gets the fraction of the time the elevator has been busy, moving or
+     * stopped with its doors open, since the bank was started
+     *
+     * @param car Elevator index
+     * @return Utilization between 0 and 1
+     */
+    public double getUtilization(int car) {
+        long elapsed = getClock().currentTimeMillis() - startTime;
+
+        if (startTime < 0 || elapsed <= 0) {
+            return 0;
+        }
+
+        return Math.min(1.0, (double) cars.get(car).getBusyTime() / elapsed);
+    }
+
+    /**
+     * Gets the amount of hall calls assigned to the elevator
+     *
+     * @param car Elevator index
+     * @return Assigned hall calls
+     */
+    public long getAssignedCount(int car) {
+        return assigned.get(car);
+    }
+
+    /**
+     * Gets a report of the utilization of every elevator
+     *
+     * @return Utilization report
+     */
+    public String getUtilizationReport() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < cars.size(); i++) {
+            sb.append(String.format("%s: %5.1f%% busy, %d calls assigned%n",
+                    cars.get(i).getElevatorName(),
+                    getUtilization(i) * 100,
+                    getAssignedCount(i)));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Gets how persons are assigned to the elevators
+     *
+     * @return Dispatch mode
+     */
+    public final DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    /**
+     * Gets the clock used by the elevators
+     *
+     * @return Clock
+     */
+    public final SimulationClock getClock() {
+        return cars.get(0).getClock();
+    }
+
+    /**
+     * Gets the execution mode used by the elevators' threads
+     *
+     * @return Execution mode
+     */
+    public final ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Gets the bank name
+     *
+     * @return Bank name
+     */
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the amount of elevators
+     *
+     * @return Elevator count
+     */
+    public final int getCarCount() {
+        return cars.size();
+    }
+
+    /**
+     * Gets an elevator
+     *
+     * @param car Elevator index
+     * @return Elevator
+     */
+    public final Elevator getCar(int car) {
+        return cars.get(car);
+    }
+
+    /**
+     * Gets the queuer of an elevator
+     *
+     * @param car Elevator index
+     * @return Elevator queuer
+     */
+    public final ElevatorQueuer getQueuer(int car) {
+        return queuers.get(car);
+    }
+
+    /**
+     * Gets the elevators
+     *
+     * @return Elevators
+     */
+    public final List<Elevator> getCars() {
+        return Collections.unmodifiableList(cars);
+    }
+
+    /**
+     * Gets the bank's bottom floor
+     *
+     * @return Bottom floor
+     */
+    @Override
+    public int getBottomFloor() {
+        return cars.get(0).getBottomFloor();
+    }
+
+    /**
+     * Gets the bank's top floor
+     *
+     * @return Top floor
+     */
+    @Override
+    public int getTopFloor() {
+        return cars.get(0).getTopFloor();
+    }
+
+    /**
+     * Sets the clock used by the elevators, utilization is measured from the
+     * current time of the clock
+     *
+     * @param clock Clock
+     */
+    public final void setClock(SimulationClock clock) {
+        cars.forEach(car -> car.setClock(clock));
+        startTime = clock.currentTimeMillis();
+    }
+
+    /**
+     * Gives every elevator an event ring of its own and moves its queuer to
+     * the ring, before the bank is started or attached to a simulation
+     *
+     * The queuers are polled by the simulation after every step, or run on a
+     * thread per elevator once the bank is started. STOP and EJECT are only
+     * delivered without allocating as long as nothing else listens for them
+     * on the elevators, such as an EventJournal or an ElevatorRenderer.
+     *
+     * @param capacity Slots of every ring
+     */
+    public final void setEventRings(int capacity) {
+        synchronized (threads) {
+            if (!queuerCursors.isEmpty()) {
+                throw new IllegalStateException("Event rings already set");
+            }
+
+            for (int i = 0; i < cars.size(); i++) {
+                Elevator car = cars.get(i);
+                ElevatorEventRing ring = new ElevatorEventRing(car.getElevatorName(), capacity);
+
+                car.setEventRing(ring);
+                queuerCursors.add(queuers.get(i).consume(ring));
+            }
+        }
+    }
+
+    /**
+     * Sets the execution mode used by the elevators' threads, takes effect
+     * for elevators started afterwards
+     *
+     * @param mode Execution mode
+     */
+    public final void setExecutionMode(ExecutionMode mode) {
+        this.executionMode = mode;
+        cars.forEach(car -> car.setExecutionMode(mode));
+    }
+
+    /**
+     * Sets the cost function used to assign hall calls
+     *
+     * @param costFunction Cost function
+     */
+    public final void setCostFunction(ElevatorCostFunction costFunction) {
+        this.costFunction = costFunction;
+    }
+
+    /**
+     * Sets how persons are assigned to the elevators, takes effect for
+     * persons queued afterwards
+     *
+     * @param dispatchMode Dispatch mode
+     */
+    public final void setDispatchMode(DispatchMode dispatchMode) {
+        this.dispatchMode = dispatchMode;
+    }
+
+    /**
+     * Sets the policy choosing where every elevator waits once idle
+     *
+     * @param parking Parking policy
+     */
+    public final void setParkingPolicy(ParkingPolicy parking) {
+        cars.forEach(car -> car.setParkingPolicy(parking));
+    }
+
+    /**
+     * Sets the strategy ordering the stops of every elevator
+     *
+     * @param strategy Scheduling strategy
+     */
+    public final void setSchedulingStrategy(SchedulingStrategy strategy) {
+        cars.forEach(car -> car.setSchedulingStrategy(strategy));
+    }
+
+    /**
+     * Sets the time every elevator stays at a requested floor
+     *
+     * @param stopDelay Stop delay in milliseconds
+     */
+    public final void setStopDelay(int stopDelay) {
+        cars.forEach(car -> car.setStopDelay(stopDelay));
+    }
+
+    /**
+     * Sets the floor range (bottom floor, top floor) of every elevator
+     *
+     * @param min Bottom floor
+     * @param max Top floor
+     */
+    public final void setFloorRange(int min, int max) {
+        cars.forEach(car -> car.setFloorRange(min, max));
+    }
+
+    /**
+     * Sets the max weight of every elevator
+     *
+     * @param weight Max weight
+     */
+    public final void setMaxWeight(int weight) {
+        cars.forEach(car -> car.setMaxWeight(weight));
+    }
+
+    /**
+     * Sets the maximum amount of people of every elevator
+     *
+     * @param limit Limit
+     */
+    public final void setMaxPeople(int limit) {
+        cars.forEach(car -> car.setMaxPeople(limit));
+    }
+
+    /**
+     * Sets the movement delay (speed) of every elevator
+     *
+     * @param moveDelay Movement delay
+     */
+    public final void setMoveDelay(int moveDelay) {
+        cars.forEach(car -> car.setMoveDelay(moveDelay));
+    }
+
+    /**
+     * Elevator bank
+     *
+     * @param name Bank name
+     * @param carCount Amount of elevators
+     * @param bottomFloor Bottom floor, where the elevators start
+     * @param topFloor Top floor
+     */
+    public ElevatorBank(String name, int carCount, int bottomFloor, int topFloor) {
+        if (carCount < 1) {
+            throw new IllegalArgumentException("An elevator bank needs at least one elevator");
+        }
+
+        this.name = name;
+        this.assigned = new AtomicLongArray(carCount);
+
+        for (int i = 1; i <= carCount; i++) {
+            Elevator car = new Elevator(bottomFloor, name + i);
+            car.setFloorRange(bottomFloor, topFloor);
+
+            ElevatorQueuer queuer = new ElevatorQueuer(car);
+            int index = i - 1;
+            queuer.setLeftBehindHandler((floor, direction) -> reassign(index, floor, direction));
+
+            cars.add(car);
+            queuers.add(queuer);
+        }
+    }
+
+}
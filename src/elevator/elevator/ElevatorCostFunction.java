@@ -0,0 +1,55 @@
+package elevator.elevator;
+
+/**
+ * Estimates the cost of letting an elevator serve a person's hall call, the
+ * elevator with the lowest cost is assigned the call
+ */
+@FunctionalInterface
+public interface ElevatorCostFunction {
+
+    /**
+     * Default cost function, based on the travel distance to the person's
+     * floor in the elevator's current direction, the pending stops on the way
+     * and the elevator's load. Elevators only take the calls of the direction
+     * they are heading in, so a call going the other way has to wait for the
+     * elevator to turn around.
+     */
+    public static final ElevatorCostFunction DEFAULT = (elevator, person) -> {
+        int floor = elevator.getFloor(),
+                callFloor = person.getFloor(),
+                direction = elevator.getDirection(),
+                trip = Integer.signum(person.getTargetFloor() - callFloor),
+                distance = Math.abs(callFloor - floor);
+
+        // Calls behind a moving elevator have to wait for it to turn around
+        if (direction != 0 && Integer.signum(callFloor - floor) == -direction) {
+            distance += 2 * Math.abs(elevator.getLastFloor() - floor);
+        } else if (direction != 0 && trip == -direction) {
+            // Calls ahead going the other way wait until it turns at its
+            // last stop
+            distance += 2 * Math.max(0, (elevator.getLastFloor() - callFloor) * direction);
+        }
+
+        double load = Math.max(
+                (double) elevator.getPassengerCount() / elevator.getMaxPeople(),
+                (double) elevator.getTotalWeight() / elevator.getMaxWeight());
+
+        if (load >= 1) {
+            return Double.MAX_VALUE;
+        }
+
+        return distance
+                + elevator.getPendingStops()
+                + load * elevator.getFloorCount();
+    };
+
+    /**
+     * Calculates the cost of the elevator serving the person
+     *
+     * @param elevator Elevator
+     * @param person Person
+     * @return Cost, lower is better
+     */
+    public double cost(Elevator elevator, Person person);
+
+}
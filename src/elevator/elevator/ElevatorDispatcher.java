@@ -0,0 +1,353 @@
+package elevator.elevator;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Delivers elevator events to the registered listeners
+ *
+ * Events are handed to a single event loop thread through a bounded queue,
+ * so every listener receives its events in the order they were dispatched.
+ * A dispatcher with a capacity of 0 delivers directly on the calling thread.
+ * The event loop runs on a platform or a virtual thread depending on the
+ * execution mode.
+ */
+public class ElevatorDispatcher {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static class ActionConsumerStruct {
+
+        private final ElevatorAction action;
+        private final Consumer<Object> consumer;
+
+        public Consumer<Object> getConsumer() {
+            return consumer;
+        }
+
+        public ElevatorAction getAction() {
+            return action;
+        }
+
+        public ActionConsumerStruct(ElevatorAction action, Consumer<Object> consumer) {
+            this.consumer = consumer;
+            this.action = action;
+        }
+
+    }
+
+    private static class Event {
+
+        private final ElevatorAction action;
+        private final Object data;
+
+        public Event(ElevatorAction action, Object data) {
+            this.action = action;
+            this.data = data;
+        }
+
+    }
+
+    private static final Event POISON = new Event(null, null);
+
+    private final String name;
+    private final int capacity;
+    private final ExecutionMode mode;
+    private final BlockingQueue<Event> events;
+
+    private final List<ActionConsumerStruct> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicIntegerArray listenerCounts = new AtomicIntegerArray(ElevatorAction.values().length);
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+
+    private final Object threadLock = new Object();
+    private volatile Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * Delivers a single event to the listeners of its action
+     *
+     * @param action Action
+     * @param data Data
+     */
+    private void deliver(ElevatorAction action, Object data) {
+        for (ActionConsumerStruct listener : listeners) {
+            if (listener.getAction() == action) {
+                try {
+                    listener.getConsumer().accept(data);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        delivered.incrementAndGet();
+    }
+
+    /**
+     * Event loop, delivers queued events until shut down and drained
+     */
+    private void loop() {
+        Event event;
+
+        while (true) {
+            try {
+                event = events.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (event == POISON) {
+                return;
+            }
+
+            deliver(event.action, event.data);
+        }
+    }
+
+    /**
+     * Starts the event loop thread if it is not already running
+     */
+    private void ensureStarted() {
+        if (worker != null) {
+            return;
+        }
+
+        synchronized (threadLock) {
+            if (worker == null && running) {
+                Thread thread = mode.newThread(this::loop, String.format("Elevator%sDispatcher", name));
+                thread.setDaemon(true);
+                thread.start();
+
+                worker = thread;
+            }
+        }
+    }
+
+    /**
+     * Adds a listener
+     *
+     * @param action Action
+     * @param listener Listener
+     */
+    public void addListener(ElevatorAction action, Consumer<Object> listener) {
+        listeners.add(new ActionConsumerStruct(action, listener));
+        listenerCounts.incrementAndGet(action.ordinal());
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param action Action
+     * @param listener Listener
+     * @return True if the listener was registered
+     */
+    public boolean removeListener(ElevatorAction action, Consumer<Object> listener) {
+        for (ActionConsumerStruct struct : listeners) {
+            if (struct.getAction() == action && struct.getConsumer() == listener
+                    && listeners.remove(struct)) {
+                listenerCounts.decrementAndGet(action.ordinal());
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Registers the listeners of this dispatcher on another dispatcher
+     *
+     * @param target Target dispatcher
+     */
+    void copyListenersTo(ElevatorDispatcher target) {
+        for (ActionConsumerStruct struct : listeners) {
+            target.addListener(struct.getAction(), struct.getConsumer());
+        }
+    }
+
+    /**
+     * Checks if any listener is registered for an action, without allocating
+     *
+     * @param action Action
+     * @return True if the action has listeners
+     */
+    public boolean hasListeners(ElevatorAction action) {
+        return listenerCounts.get(action.ordinal()) > 0;
+    }
+
+    /**
+     * Dispatches an event to the listeners of the given action
+     *
+     * @param action Action
+     * @param data Data
+     * @return True if the event was delivered or queued, false if it was dropped
+     */
+    public boolean dispatch(ElevatorAction action, Object data) {
+        if (capacity == 0) {
+            deliver(action, data);
+            return true;
+        }
+
+        if (!running) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        ensureStarted();
+
+        Event event = new Event(action, data);
+
+        if (!events.offer(event)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        // Shut down meanwhile, the event may be behind the shutdown marker
+        // where the event loop never gets to it. Takes it back unless the
+        // loop already did.
+        if (!running && events.remove(event)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        queued.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Stops accepting events, the already queued events are still delivered
+     */
+    public void shutdown() {
+        Thread thread;
+
+        synchronized (threadLock) {
+            if (!running) {
+                return;
+            }
+
+            running = false;
+            thread = worker;
+        }
+
+        if (thread != null) {
+            // Waits for room rather than dropping the shutdown marker, outside
+            // of the monitor so a virtual thread does not pin its carrier
+            try {
+                events.put(POISON);
+            } catch (InterruptedException e) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Checks if the dispatcher accepts events, false once shut down
+     *
+     * @return True if running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the amount of events queued for the event loop, events delivered
+     * directly are not queued
+     *
+     * @return Queued events
+     */
+    public long getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * Gets the amount of events dropped because the queue was full
+     *
+     * @return Dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the amount of events delivered to the listeners
+     *
+     * @return Delivered events
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Gets the amount of events currently waiting for delivery
+     *
+     * @return Pending events
+     */
+    public int getPendingCount() {
+        return events == null ? 0 : events.size();
+    }
+
+    /**
+     * Gets the queue capacity, 0 if the events are delivered directly
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the execution mode of the event loop
+     *
+     * @return Execution mode
+     */
+    public ExecutionMode getExecutionMode() {
+        return mode;
+    }
+
+    /**
+     * Elevator event dispatcher
+     *
+     * @param name Dispatcher name
+     * @param capacity Maximum amount of pending events, 0 to deliver
+     *        directly on the dispatching thread
+     * @param mode Execution mode of the event loop
+     */
+    public ElevatorDispatcher(String name, int capacity, ExecutionMode mode) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity");
+        }
+
+        this.name = name;
+        this.capacity = capacity;
+        this.mode = mode;
+        this.events = capacity > 0 ? new ArrayBlockingQueue<Event>(capacity) : null;
+    }
+
+    /**
+     * Elevator event dispatcher running its event loop on a platform thread
+     *
+     * @param name Dispatcher name
+     * @param capacity Maximum amount of pending events, 0 to deliver
+     *        directly on the dispatching thread
+     */
+    public ElevatorDispatcher(String name, int capacity) {
+        this(name, capacity, ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Elevator event dispatcher with the default capacity
+     *
+     * @param name Dispatcher name
+     */
+    public ElevatorDispatcher(String name) {
+        this(name, DEFAULT_CAPACITY);
+    }
+
+}
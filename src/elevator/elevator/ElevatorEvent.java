@@ -0,0 +1,183 @@
+package elevator.elevator;
+
+/**
+ * Mutable slot of an elevator event ring
+ *
+ * The slots are allocated once with the ring and overwritten by the elevator
+ * for every event, so a handler must copy whatever it keeps past its call.
+ * The fields of the person are copied at publication, as the person may have
+ * moved on by the time the event is handled.
+ */
+public final class ElevatorEvent {
+
+    private long sequence = -1;
+    private ElevatorAction action;
+    private int floor;
+    private int direction;
+    private long time;
+
+    private int originFloor;
+    private int targetFloor;
+    private int weight;
+    private long queueTime;
+    private long boardTime;
+    private long ejectTime;
+
+    /**
+     * Overwrites the slot with an event, only called by the producer
+     *
+     * @param sequence Sequence number
+     * @param action Action
+     * @param floor Floor of the elevator
+     * @param direction Direction of the elevator
+     * @param time Time in milliseconds
+     * @param person Person, null for START and STOP
+     */
+    void set(long sequence, ElevatorAction action, int floor, int direction, long time, Person person) {
+        this.sequence = sequence;
+        this.action = action;
+        this.floor = floor;
+        this.direction = direction;
+        this.time = time;
+
+        if (person != null) {
+            this.originFloor = person.getOriginFloor();
+            this.targetFloor = person.getTargetFloor();
+            this.weight = person.getWeight();
+            this.queueTime = person.getQueueTime();
+            this.boardTime = person.getBoardTime();
+            this.ejectTime = person.getEjectTime();
+        } else {
+            this.originFloor = 0;
+            this.targetFloor = 0;
+            this.weight = 0;
+            this.queueTime = -1;
+            this.boardTime = -1;
+            this.ejectTime = -1;
+        }
+    }
+
+    /**
+     * Gets the sequence number of the event in its ring
+     *
+     * @return Sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the action
+     *
+     * @return Action
+     */
+    public ElevatorAction getAction() {
+        return action;
+    }
+
+    /**
+     * Gets the floor of the elevator
+     *
+     * @return Floor
+     */
+    public int getFloor() {
+        return floor;
+    }
+
+    /**
+     * Gets the direction the elevator travelled in when it published the
+     * event, which it may have changed since
+     *
+     * @return Direction, 0 if it stood still
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the time the event was published at
+     *
+     * @return Time in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the origin floor of the person
+     *
+     * @return Origin floor, 0 if the event has no person
+     */
+    public int getOriginFloor() {
+        return originFloor;
+    }
+
+    /**
+     * Gets the target floor of the person
+     *
+     * @return Target floor, 0 if the event has no person
+     */
+    public int getTargetFloor() {
+        return targetFloor;
+    }
+
+    /**
+     * Gets the weight of the person
+     *
+     * @return Weight, 0 if the event has no person
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Gets the time the person was queued at
+     *
+     * @return Time in milliseconds, -1 if not set
+     */
+    public long getQueueTime() {
+        return queueTime;
+    }
+
+    /**
+     * Gets the time the person boarded at
+     *
+     * @return Time in milliseconds, -1 if not set
+     */
+    public long getBoardTime() {
+        return boardTime;
+    }
+
+    /**
+     * Gets the time the person left the elevator at
+     *
+     * @return Time in milliseconds, -1 if not set
+     */
+    public long getEjectTime() {
+        return ejectTime;
+    }
+
+    /**
+     * Gets the time the person waited between being queued and boarding
+     *
+     * @return Wait time in milliseconds, -1 if unknown
+     */
+    public long getWaitTime() {
+        return queueTime < 0 || boardTime < 0 ? -1 : boardTime - queueTime;
+    }
+
+    /**
+     * Gets the time the person rode the elevator
+     *
+     * @return Ride time in milliseconds, -1 if unknown
+     */
+    public long getRideTime() {
+        return boardTime < 0 || ejectTime < 0 ? -1 : ejectTime - boardTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s floor %d", sequence, action, floor);
+    }
+
+}
@@ -0,0 +1,17 @@
+package elevator.elevator;
+
+/**
+ * Consumer of the events of an elevator event ring
+ */
+@FunctionalInterface
+public interface ElevatorEventHandler {
+
+    /**
+     * Handles a single event, the slot is reused once the call returns
+     *
+     * @param event Event
+     * @param endOfBatch True if it is the last event currently published
+     */
+    void onEvent(ElevatorEvent event, boolean endOfBatch);
+
+}
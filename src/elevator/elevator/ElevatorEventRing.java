@@ -0,0 +1,426 @@
+package elevator.elevator;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated ring of the events of a single elevator, written by the
+ * thread stepping the elevator and read by any number of consumers
+ *
+ * The elevator overwrites the mutable slots in place and publishes them by
+ * advancing a single sequence number, so publishing allocates nothing. Every
+ * consumer follows with a cursor of its own and handles everything published
+ * since its last read as one batch, in publication order.
+ *
+ * A consumer is either polled by the caller, as the simulation does after
+ * every step of the elevator, or started on a thread of its own that sleeps
+ * until the next event is published. An event that would overwrite a slot a
+ * started consumer has not handled yet waits for that consumer, so started
+ * consumers never miss an event. A polled consumer may be polled by the very
+ * thread stepping the elevator, so an event that would overwrite a slot it
+ * has not handled yet is dropped and counted instead, as is one that waits
+ * for a consumer being stopped.
+ */
+public class ElevatorEventRing {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long WAIT_NANOS = 10000;
+
+    /**
+     * Read position of a single consumer
+     */
+    public final class Cursor {
+
+        private final ElevatorEventHandler handler;
+
+        // Sequence number of the last handled event
+        private final AtomicLong sequence;
+
+        private volatile Thread thread;
+        private volatile boolean running;
+        private volatile boolean waiting;
+
+        /**
+         * Runs the consumer thread, polls until stopped and drained
+         */
+        private void loop() {
+            while (running) {
+                if (poll() > 0) {
+                    continue;
+                }
+
+                // Announces the wait before the last check, the producer
+                // reads the flag after publishing
+                waiting = true;
+
+                if (running && published.get() == sequence.get()) {
+                    LockSupport.park(this);
+                }
+
+                waiting = false;
+            }
+
+            poll();
+        }
+
+        /**
+         * Handles every event published since the last call, on the calling
+         * thread. A cursor must not be polled by several threads at once.
+         *
+         * @return Amount of handled events
+         */
+        public int poll() {
+            long current = sequence.get();
+            long available = published.get();
+
+            if (available == current) {
+                return 0;
+            }
+
+            for (long seq = current + 1; seq <= available; seq++) {
+                try {
+                    handler.onEvent(slots[(int) seq & mask], seq == available);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            // Hands the slots back to the producer as a whole
+            sequence.lazySet(available);
+
+            return (int) (available - current);
+        }
+
+        /**
+         * Starts a thread handling the events as they are published, or
+         * restarts a stopped cursor once its previous thread has finished
+         *
+         * @param mode Execution mode of the thread
+         * @return Started thread
+         */
+        public synchronized Thread start(ExecutionMode mode) {
+            if (running) {
+                throw new IllegalStateException("Cursor already started");
+            }
+
+            Thread previous = thread;
+
+            // Only one thread may poll the cursor at a time
+            if (previous != null) {
+                boolean interrupted = false;
+
+                while (previous.isAlive()) {
+                    try {
+                        previous.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            running = true;
+
+            Thread t = mode.newThread(this::loop, String.format("Elevator%sRing", name));
+            t.setDaemon(true);
+            thread = t;
+            t.start();
+
+            return t;
+        }
+
+        /**
+         * Stops the thread of the cursor once the published events are
+         * handled
+         */
+        public void stop() {
+            Thread t = thread;
+
+            running = false;
+
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+
+        /**
+         * Checks if the cursor was started on a thread of its own, which
+         * then owns it until the end
+         *
+         * @return True if started
+         */
+        public boolean isStarted() {
+            return thread != null;
+        }
+
+        /**
+         * Checks if the thread of the cursor is running and not asked to
+         * stop
+         *
+         * @return True if running
+         */
+        public boolean isRunning() {
+            return running;
+        }
+
+        /**
+         * Gets the sequence number of the last handled event
+         *
+         * @return Sequence number, -1 if none
+         */
+        public long getSequence() {
+            return sequence.get();
+        }
+
+        /**
+         * Gets the amount of published events not handled yet
+         *
+         * @return Lag in events
+         */
+        public int getLag() {
+            return (int) (published.get() - sequence.get());
+        }
+
+        /**
+         * Cursor starting after the last published event
+         *
+         * @param handler Event handler
+         */
+        private Cursor(ElevatorEventHandler handler) {
+            this.handler = handler;
+            this.sequence = new AtomicLong(published.get());
+        }
+
+    }
+
+    private static final Cursor[] NO_CURSORS = new Cursor[0];
+
+    private final String name;
+    private final ElevatorEvent[] slots;
+    private final int mask;
+
+    // Sequence number of the last published event
+    private final AtomicLong published = new AtomicLong(-1);
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile Cursor[] cursors = NO_CURSORS;
+
+    /**
+     * Gets the sequence number of the last event every consumer has handled
+     *
+     * @param cursors Consumers
+     * @param current Last published sequence number
+     * @return Sequence number
+     */
+    private static long minimumSequence(Cursor[] cursors, long current) {
+        long min = current;
+
+        for (Cursor cursor : cursors) {
+            min = Math.min(min, cursor.sequence.get());
+        }
+
+        return min;
+    }
+
+    /**
+     * Waits until every consumer has handled a sequence number, as long as
+     * the consumers behind run on threads of their own
+     *
+     * @param cursors Consumers
+     * @param sequence Sequence number
+     * @return False if a consumer behind is polled, stopped, or the waiting
+     *         thread was interrupted
+     */
+    private boolean awaitConsumers(Cursor[] cursors, long sequence) {
+        for (Cursor cursor : cursors) {
+            while (cursor.sequence.get() < sequence) {
+                if (!cursor.running || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+
+                LockSupport.parkNanos(this, WAIT_NANOS);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Publishes an event, only called by the thread stepping the elevator
+     * while it holds none of the elevator's locks, which the consumers may
+     * need to catch up
+     *
+     * @param action Action
+     * @param floor Floor of the elevator
+     * @param direction Direction of the elevator
+     * @param time Time in milliseconds
+     * @param person Person, null for START and STOP
+     * @return True if published, false if dropped as a polled or stopping
+     *         consumer is a whole ring behind
+     */
+    boolean publish(ElevatorAction action, int floor, int direction, long time, Person person) {
+        Cursor[] current = cursors;
+        long seq = published.get() + 1;
+
+        // The slot still holds an event of the previous lap
+        if (seq - slots.length > minimumSequence(current, seq - 1)
+                && !awaitConsumers(current, seq - slots.length)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        slots[(int) seq & mask].set(seq, action, floor, direction, time, person);
+
+        // Volatile rather than lazy, so the waiting flags read below cannot
+        // be read before the event is visible
+        published.set(seq);
+
+        for (Cursor cursor : current) {
+            if (cursor.waiting) {
+                LockSupport.unpark(cursor.thread);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if every consumer has handled an event
+     *
+     * @param sequence Sequence number of the event
+     * @return True if handled by every consumer
+     */
+    boolean isHandled(long sequence) {
+        return minimumSequence(cursors, sequence) >= sequence;
+    }
+
+    /**
+     * Adds a consumer, which receives the events published from now on
+     *
+     * @param handler Event handler
+     * @return Cursor of the consumer, polled by the caller or started
+     */
+    public synchronized Cursor addConsumer(ElevatorEventHandler handler) {
+        Cursor cursor = new Cursor(handler);
+
+        Cursor[] next = Arrays.copyOf(cursors, cursors.length + 1);
+        next[next.length - 1] = cursor;
+        cursors = next;
+
+        return cursor;
+    }
+
+    /**
+     * Removes a consumer and stops its thread, it no longer holds the
+     * producer back
+     *
+     * @param cursor Cursor of the consumer
+     * @return True if the consumer was registered
+     */
+    public synchronized boolean removeConsumer(Cursor cursor) {
+        for (int i = 0; i < cursors.length; i++) {
+            if (cursors[i] == cursor) {
+                Cursor[] next = new Cursor[cursors.length - 1];
+                System.arraycopy(cursors, 0, next, 0, i);
+                System.arraycopy(cursors, i + 1, next, i, next.length - i);
+                cursors = next;
+
+                cursor.stop();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Polls every consumer that does not run on a thread of its own
+     *
+     * @return Amount of handled events, summed over the consumers
+     */
+    public int poll() {
+        int handled = 0;
+
+        for (Cursor cursor : cursors) {
+            if (!cursor.isStarted()) {
+                handled += cursor.poll();
+            }
+        }
+
+        return handled;
+    }
+
+    /**
+     * Stops the threads of every consumer
+     */
+    public void stop() {
+        for (Cursor cursor : cursors) {
+            cursor.stop();
+        }
+    }
+
+    /**
+     * Gets the amount of slots
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Gets the amount of published events
+     *
+     * @return Published events
+     */
+    public long getPublishedCount() {
+        return published.get() + 1;
+    }
+
+    /**
+     * Gets the amount of events dropped because a polled or stopping
+     * consumer was a whole ring behind
+     *
+     * @return Dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Elevator event ring
+     *
+     * @param name Name of the ring's threads
+     * @param capacity Amount of slots, rounded up to a power of two
+     */
+    public ElevatorEventRing(String name, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        this.name = name;
+        this.mask = size - 1;
+        this.slots = new ElevatorEvent[size];
+
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ElevatorEvent();
+        }
+    }
+
+    /**
+     * Elevator event ring with the default capacity
+     *
+     * @param name Name of the ring's threads
+     */
+    public ElevatorEventRing(String name) {
+        this(name, DEFAULT_CAPACITY);
+    }
+
+}
@@ -1,43 +1,384 @@
 package elevator.elevator;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
-public class ElevatorQueuer {
+public class ElevatorQueuer implements HallCallQueue {
 
-    private final List<Person> persons = new LinkedList<>();
+    /**
+     * Up and down hall calls of a single floor, FIFO queues of the persons
+     * going each way, guarded by its own monitor so that different floors
+     * never contend
+     */
+    private static class FloorQueue {
+
+        private final Deque<Person> up = new ArrayDeque<>();
+        private final Deque<Person> down = new ArrayDeque<>();
+        private volatile int version;
+
+        /**
+         * Gets the calls of a direction
+         *
+         * @param direction Direction, 1 for up and -1 for down
+         * @return Persons going that way, in queue order
+         */
+        private Deque<Person> calls(int direction) {
+            return direction < 0 ? down : up;
+        }
+
+        /**
+         * Gets the direction of the call that has waited the longest
+         *
+         * @return Direction, 0 if nobody is waiting
+         */
+        private int oldestDirection() {
+            Person first = up.peekFirst(), second = down.peekFirst();
+
+            if (first == null || second == null) {
+                return first != null ? 1 : second != null ? -1 : 0;
+            }
+
+            return second.getQueueTime() < first.getQueueTime() ? -1 : 1;
+        }
+
+        /**
+         * Gets every waiting person in queue order, both directions merged
+         *
+         * @return Waiting persons
+         */
+        private List<Person> persons() {
+            List<Person> persons = new ArrayList<>(up.size() + down.size());
+            Iterator<Person> ups = up.iterator(), downs = down.iterator();
+            Person u = ups.hasNext() ? ups.next() : null,
+                    d = downs.hasNext() ? downs.next() : null;
+
+            while (u != null || d != null) {
+                if (d == null || (u != null && u.getQueueTime() <= d.getQueueTime())) {
+                    persons.add(u);
+                    u = ups.hasNext() ? ups.next() : null;
+                } else {
+                    persons.add(d);
+                    d = downs.hasNext() ? downs.next() : null;
+                }
+            }
+
+            return persons;
+        }
+
+        /**
+         * Checks if nobody is waiting
+         *
+         * @return True if empty
+         */
+        private boolean isEmpty() {
+            return up.isEmpty() && down.isEmpty();
+        }
+
+        /**
+         * Gets the amount of waiting persons
+         *
+         * @return Waiting persons
+         */
+        private int size() {
+            return up.size() + down.size();
+        }
+
+        /**
+         * Removes everyone waiting
+         */
+        private void clear() {
+            up.clear();
+            down.clear();
+        }
+
+    }
+
+    private final ConcurrentMap<Integer, FloorQueue> floors = new ConcurrentHashMap<>();
+    private final List<Consumer<Person>> queueListeners = new CopyOnWriteArrayList<>();
+
+    // Floors where persons going up or down were left behind, by a full
+    // elevator or one heading the other way, requested again once the
+    // elevator can take them
+    private final Set<Integer> skippedUp = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> skippedDown = ConcurrentHashMap.newKeySet();
+    private final AtomicLong leftBehind = new AtomicLong();
 
     private final Elevator elevator;
+    private final Consumer<Object> stopListener = data -> {
+        ElevatorStop stop = (ElevatorStop) data;
+        processFloor(stop.getFloor(), stop.getDirection());
+    };
+
+    private volatile BiConsumer<Integer, Integer> leftBehindHandler;
+
+    /**
+     * Gets the queue of the given floor, creating it if necessary
+     *
+     * @param floor Floor
+     * @return Floor queue
+     */
+    private FloorQueue floorQueue(int floor) {
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            fq = floors.computeIfAbsent(floor, f -> new FloorQueue());
+        }
+
+        return fq;
+    }
 
-    private final Object queueLock = new Object();
+    /**
+     * Gets the floors where persons going one way were left behind
+     *
+     * @param direction Direction, 1 for up and -1 for down
+     * @return Floors
+     */
+    private Set<Integer> skipped(int direction) {
+        return direction < 0 ? skippedDown : skippedUp;
+    }
 
     /**
-     * Processes a single person
+     * Gets the direction of a person's trip
      *
      * @param person Person
+     * @return 1 for up, -1 for down
      */
-    private final void processPerson(Person person) {
-        elevator.addPassenger(person, true);
+    private static int direction(Person person) {
+        return person.getTargetFloor() < person.getFloor() ? -1 : 1;
+    }
 
-        elevator.request(person.getTargetFloor());
+    /**
+     * Gets the direction an elevator leaves a floor in: onwards while it has
+     * stops ahead, back if it only has stops behind
+     *
+     * @param floor Floor
+     * @param direction Direction of travel
+     * @param stops Pending stops in ascending order
+     * @return Heading, 0 if there are no stops other than the floor or
+     *         stops both ways of an elevator without a direction
+     */
+    private static int heading(int floor, int direction, int[] stops) {
+        boolean above = stops.length > 0 && stops[stops.length - 1] > floor,
+                below = stops.length > 0 && stops[0] < floor;
+
+        if (direction > 0) {
+            return above ? 1 : below ? -1 : 0;
+        } else if (direction < 0) {
+            return below ? -1 : above ? 1 : 0;
+        }
+
+        return above == below ? 0 : above ? 1 : -1;
     }
 
     /**
-     * Process when the elevator hits a floor
+     * Requests the floors where persons were left behind once the elevator
+     * can take them on its way: the calls of its heading ahead of it, the
+     * calls of the other way at or beyond the stop where it turns, and every
+     * call once it has no stops left
+     *
+     * Requesting them any sooner would only make the elevator stop where
+     * nobody boards, which strategies heading for the closest stop never get
+     * away from.
+     *
+     * @param floor Current floor
+     * @param heading Heading of the elevator at the floor
+     * @param stops Pending stops in ascending order
+     */
+    private void requestSkipped(int floor, int heading, int[] stops) {
+        if ((skippedUp.isEmpty() && skippedDown.isEmpty())
+                || elevator.getPassengerCount() >= elevator.getMaxPeople()) {
+            return;
+        }
+
+        List<Integer> floors = new ArrayList<>();
+
+        for (int direction = -1; direction <= 1; direction += 2) {
+            Set<Integer> set = skipped(direction);
+
+            for (Integer skipped : set) {
+                boolean take;
+
+                if (skipped == floor) {
+                    take = false;
+                } else if (heading == 0) {
+                    take = true;
+                } else if (direction == heading) {
+                    take = Integer.signum(skipped - floor) == heading;
+                } else {
+                    int turn = heading > 0 ? stops[stops.length - 1] : stops[0];
+                    take = Integer.signum(skipped - turn) != -heading;
+                }
+
+                if (take && set.remove(skipped)) {
+                    floors.add(skipped);
+                }
+            }
+        }
+
+        if (!floors.isEmpty()) {
+            elevator.request(floors);
+        }
+    }
+
+    /**
+     * Process when the elevator hits a floor, boards as many of the persons
+     * going the elevator's way as fit and leaves the rest queued for the next
+     * visit
+     *
+     * An elevator leaving the floor in a direction only takes the calls of
+     * that direction. At the stop where it would turn, persons going on in
+     * its direction of travel still board and keep it going. An elevator
+     * with nowhere left to go takes the call that has waited the longest, and
+     * with it the direction.
      *
      * @param floor Floor
+     * @param direction Direction the elevator travelled in when it stopped
      */
-    private final void processFloor(int floor) {
-        synchronized (queueLock) {
-            LinkedList<Person> filtered = persons.stream()
-                    .filter(person -> person.getFloor() == floor)
-                    .collect(Collectors.toCollection(LinkedList::new));
+    private final void processFloor(int floor, int direction) {
+        int[] stops = elevator.getStops();
+        int heading = heading(floor, direction, stops);
+
+        requestSkipped(floor, heading, stops);
 
-            filtered.forEach(person -> {
-                persons.remove(person);
-                processPerson(person);
-            });
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            return;
+        }
+
+        List<Person> candidates = new ArrayList<>();
+        Deque<Person> calls;
+        boolean leftAhead = false, leftBack = false;
+
+        // Read before taking the floor's monitor, which is never held while
+        // taking the elevator's locks. The elevator checks again on boarding.
+        int room = elevator.getMaxPeople() - elevator.getPassengerCount();
+        long weight = (long) elevator.getMaxWeight() - elevator.getTotalWeight();
+
+        // Takes the candidates off the front of the call under the floor's
+        // monitor and boards them outside of it. Only as many are taken as
+        // the elevator has room for, persons too heavy to fit are passed
+        // over for lighter ones behind them.
+        synchronized (fq) {
+            if (fq.isEmpty()) {
+                return;
+            }
+
+            if (direction != 0 && heading != direction && !fq.calls(direction).isEmpty()) {
+                heading = direction;
+            } else if (heading == 0) {
+                heading = fq.oldestDirection();
+            }
+
+            calls = fq.calls(heading);
+
+            while (room > 0 && !calls.isEmpty()) {
+                Person person = calls.pollFirst();
+                candidates.add(person);
+
+                if (person.getWeight() <= weight) {
+                    weight -= person.getWeight();
+                    room--;
+                }
+            }
+
+            if (!candidates.isEmpty()) {
+                fq.version++;
+            }
+        }
+
+        List<Person> boarded = elevator.addPassengers(floor, candidates, false);
+
+        // The elevator left before the stop was processed, which only
+        // happens when it is processed on another thread
+        boolean gone = boarded.isEmpty() && !candidates.isEmpty() && elevator.getFloor() != floor;
+
+        synchronized (fq) {
+            // Puts whoever did not board back at the front, in queue order.
+            // Persons only leave the queue on the thread processing the
+            // stops, the others were only added behind them meanwhile.
+            for (int i = candidates.size() - 1, b = boarded.size() - 1; i >= 0; i--) {
+                Person person = candidates.get(i);
+
+                if (b >= 0 && boarded.get(b) == person) {
+                    b--;
+                } else {
+                    calls.offerFirst(person);
+                }
+            }
+
+            if (!candidates.isEmpty()) {
+                fq.version++;
+            }
+
+            if (!gone && !calls.isEmpty()) {
+                leftBehind.addAndGet(calls.size());
+                skipped(heading).add(floor);
+                leftAhead = true;
+            }
+
+            // The other way waits for the return trip
+            if (!gone && !fq.calls(-heading).isEmpty()) {
+                skipped(-heading).add(floor);
+                leftBack = true;
+            }
+        }
+
+        // Comes back for them
+        if (gone) {
+            elevator.request(floor);
+            return;
+        }
+
+        if (!boarded.isEmpty()) {
+            Set<Integer> targets = new LinkedHashSet<>();
+            boarded.forEach(person -> targets.add(person.getTargetFloor()));
+
+            elevator.request(targets);
+        }
+
+        BiConsumer<Integer, Integer> handler = leftBehindHandler;
+
+        if (handler != null && leftAhead) {
+            handler.accept(floor, heading);
+        }
+
+        if (handler != null && leftBack) {
+            handler.accept(floor, -heading);
+        }
+    }
+
+    /**
+     * Adds a person to the queue of the person's floor and requests the floor
+     *
+     * @param person Person
+     */
+    private void enqueue(Person person) {
+        FloorQueue fq = floorQueue(person.getFloor());
+
+        synchronized (fq) {
+            fq.calls(direction(person)).offerLast(person);
+            fq.version++;
+        }
+
+        if (elevator.request(person.getFloor())) {
+            //System.out.println("Notice: Person could not enter the elevator");
         }
     }
 
@@ -46,30 +387,379 @@ public class ElevatorQueuer {
      * 
      * @param person Person
      */
+    @Override
     public final void queue(Person person) {
-        synchronized (queueLock) {
-            persons.add(person);
+        person.setQueueTime(elevator.getClock().currentTimeMillis());
+
+        for (Consumer<Person> listener : queueListeners) {
+            listener.accept(person);
         }
 
-        if (elevator.request(person.getFloor())) {
-            //System.out.println("Notice: Person could not enter the elevator");
+        enqueue(person);
+    }
+
+    /**
+     * Queues a person withdrawn from another elevator's queue, keeping the
+     * person's queue time and without notifying the queue listeners again
+     *
+     * @param person Person
+     */
+    public final void transfer(Person person) {
+        enqueue(person);
+    }
+
+    /**
+     * Removes the up or down hall call of a floor, so that another elevator
+     * can serve it. Must be called on the thread processing the elevator's
+     * stops, such as from the left-behind handler.
+     *
+     * @param floor Floor
+     * @param direction Direction, 1 for up and -1 for down
+     * @return Persons removed, in queue order
+     */
+    public final List<Person> withdraw(int floor, int direction) {
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            return new ArrayList<>();
+        }
+
+        List<Person> withdrawn;
+
+        synchronized (fq) {
+            Deque<Person> calls = fq.calls(direction);
+
+            withdrawn = new ArrayList<>(calls);
+            calls.clear();
+            skipped(direction).remove(floor);
+
+            if (!withdrawn.isEmpty()) {
+                fq.version++;
+            }
+        }
+
+        return withdrawn;
+    }
+
+    /**
+     * Writes the waiting persons to a checkpoint, floor by floor, the up
+     * calls and then the down calls in queue order. The elevator must not be
+     * stepped meanwhile.
+     *
+     * @param out Output
+     * @throws IOException On failure
+     */
+    public final void writeState(DataOutput out) throws IOException {
+        Set<Integer> waitingFloors = new TreeSet<>(floors.keySet());
+
+        out.writeInt(waitingFloors.size());
+
+        for (int floor : waitingFloors) {
+            FloorQueue fq = floors.get(floor);
+
+            synchronized (fq) {
+                out.writeInt(floor);
+                out.writeInt(fq.size());
+
+                for (Person person : fq.up) {
+                    Person.writeState(person, out);
+                }
+
+                for (Person person : fq.down) {
+                    Person.writeState(person, out);
+                }
+            }
         }
+
+        for (int direction = 1; direction >= -1; direction -= 2) {
+            Set<Integer> skipped = new TreeSet<>(skipped(direction));
+
+            out.writeInt(skipped.size());
+
+            for (int floor : skipped) {
+                out.writeInt(floor);
+            }
+        }
+
+        out.writeLong(leftBehind.get());
+    }
+
+    /**
+     * Replaces the waiting persons with the ones written by writeState,
+     * without requesting their floors or notifying the queue listeners
+     *
+     * @param in Input
+     * @throws IOException On failure
+     */
+    public final void readState(DataInput in) throws IOException {
+        for (FloorQueue fq : floors.values()) {
+            synchronized (fq) {
+                fq.clear();
+                fq.version++;
+            }
+        }
+
+        for (int i = in.readInt(); i > 0; i--) {
+            FloorQueue fq = floorQueue(in.readInt());
+
+            synchronized (fq) {
+                for (int n = in.readInt(); n > 0; n--) {
+                    Person person = Person.readState(in);
+                    fq.calls(direction(person)).offerLast(person);
+                }
+
+                fq.version++;
+            }
+        }
+
+        for (int direction = 1; direction >= -1; direction -= 2) {
+            Set<Integer> skipped = skipped(direction);
+            skipped.clear();
+
+            for (int i = in.readInt(); i > 0; i--) {
+                skipped.add(in.readInt());
+            }
+        }
+
+        leftBehind.set(in.readLong());
+    }
+
+    /**
+     * Adds a listener called with every person queued, on the queueing thread
+     * before the person is visible to the elevator
+     *
+     * @param listener Listener
+     */
+    public final void addQueueListener(Consumer<Person> listener) {
+        queueListeners.add(listener);
+    }
+
+    /**
+     * Removes a queue listener
+     *
+     * @param listener Listener
+     * @return True if the listener was registered
+     */
+    public final boolean removeQueueListener(Consumer<Person> listener) {
+        return queueListeners.remove(listener);
+    }
+
+    /**
+     * Sets the handler called with the floor and direction of a call the
+     * elevator left persons of behind, on the thread processing the stop once
+     * the floor's queue is no longer locked: the call of its heading if it
+     * was full, the call of the other way as it heads away from it
+     *
+     * @param handler Handler, null for none
+     */
+    public final void setLeftBehindHandler(BiConsumer<Integer, Integer> handler) {
+        this.leftBehindHandler = handler;
     }
 
     /**
      * Gets the queue of people at the given floor
      *
      * @param floor Floor
-     * @return Subset of people queueing up at the given floor
+     * @return Subset of people queueing up at the given floor, both
+     *         directions in queue order
      */
     public final List<Person> getFloorQueue(int floor) {
-        synchronized (queueLock) {
-            return persons.stream()
-                    .filter(p -> p.getFloor() == floor)
-                    .collect(Collectors.toCollection(LinkedList::new));
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            return new LinkedList<>();
+        }
+
+        synchronized (fq) {
+            return new LinkedList<>(fq.persons());
         }
     }
 
+    /**
+     * Gets the up or down hall call of the given floor
+     *
+     * @param floor Floor
+     * @param direction Direction, 1 for up and -1 for down
+     * @return People at the floor going that way, in queue order
+     */
+    public final List<Person> getFloorQueue(int floor, int direction) {
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            return new LinkedList<>();
+        }
+
+        synchronized (fq) {
+            return new LinkedList<>(fq.calls(direction));
+        }
+    }
+
+    /**
+     * Gets the amount of people waiting at the given floor
+     *
+     * @param floor Floor
+     * @return Waiting persons
+     */
+    public final int getWaitingCount(int floor) {
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            return 0;
+        }
+
+        synchronized (fq) {
+            return fq.size();
+        }
+    }
+
+    /**
+     * Gets the amount of people waiting at the given floor to go one way
+     *
+     * @param floor Floor
+     * @param direction Direction, 1 for up and -1 for down
+     * @return Waiting persons
+     */
+    public final int getWaitingCount(int floor, int direction) {
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            return 0;
+        }
+
+        synchronized (fq) {
+            return fq.calls(direction).size();
+        }
+    }
+
+    /**
+     * Gets the target floors of the people waiting at the given floor
+     *
+     * @param floor Floor
+     * @return Target floor of every waiting person, in queue order
+     */
+    public final int[] getWaitingTargets(int floor) {
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            return new int[0];
+        }
+
+        synchronized (fq) {
+            int[] targets = new int[fq.size()];
+            int i = 0;
+
+            for (Person person : fq.persons()) {
+                targets[i++] = person.getTargetFloor();
+            }
+
+            return targets;
+        }
+    }
+
+    /**
+     * Copies the target floors of the people waiting at the given floor to
+     * go one way, without allocating
+     *
+     * @param floor Floor
+     * @param direction Direction, 1 for up and -1 for down
+     * @param targets Array the targets are copied to in queue order, as many
+     *        as fit
+     * @return Amount of waiting persons, more than were copied if the array
+     *         is too small
+     */
+    public final int getWaitingTargets(int floor, int direction, int[] targets) {
+        FloorQueue fq = floors.get(floor);
+
+        if (fq == null) {
+            return 0;
+        }
+
+        synchronized (fq) {
+            Deque<Person> calls = fq.calls(direction);
+            int i = 0;
+
+            for (Person person : calls) {
+                if (i == targets.length) {
+                    break;
+                }
+
+                targets[i++] = person.getTargetFloor();
+            }
+
+            return calls.size();
+        }
+    }
+
+    /**
+     * Gets a counter that changes whenever the queue of the floor changes
+     *
+     * @param floor Floor
+     * @return Floor queue version
+     */
+    public final int getFloorVersion(int floor) {
+        FloorQueue fq = floors.get(floor);
+
+        return fq == null ? 0 : fq.version;
+    }
+
+    /**
+     * Gets the amount of times a waiting person was left behind because the
+     * elevator was full, a person left behind at several visits counts once
+     * per visit
+     *
+     * @return Persons left behind
+     */
+    public final long getLeftBehindCount() {
+        return leftBehind.get();
+    }
+
+    /**
+     * Gets the elevator's bottom floor
+     *
+     * @return Bottom floor
+     */
+    @Override
+    public int getBottomFloor() {
+        return elevator.getBottomFloor();
+    }
+
+    /**
+     * Gets the elevator's top floor
+     *
+     * @return Top floor
+     */
+    @Override
+    public int getTopFloor() {
+        return elevator.getTopFloor();
+    }
+
+    /**
+     * Takes the stops of the elevator from an event ring rather than from its
+     * listeners, the ring must be the elevator's event ring
+     *
+     * @param ring Event ring
+     * @return Cursor of the queuer, polled by the caller or started on a
+     *         thread of its own
+     */
+    public final ElevatorEventRing.Cursor consume(ElevatorEventRing ring) {
+        elevator.removeListener(ElevatorAction.STOP, stopListener);
+
+        return ring.addConsumer((event, endOfBatch) -> {
+            if (event.getAction() == ElevatorAction.STOP) {
+                processFloor(event.getFloor(), event.getDirection());
+            }
+        });
+    }
+
+    /**
+     * Gets the elevator served by the queuer
+     *
+     * @return Elevator
+     */
+    public final Elevator getElevator() {
+        return elevator;
+    }
+
     /**
      * Elevator queue handler
      *
@@ -78,9 +768,7 @@ public class ElevatorQueuer {
     public ElevatorQueuer(Elevator elevator) {
         this.elevator = elevator;
 
-        elevator.addListener(ElevatorAction.STOP, floor -> {
-            processFloor((int) floor);
-        });
+        elevator.addListener(ElevatorAction.STOP, stopListener);
     }
 
 }
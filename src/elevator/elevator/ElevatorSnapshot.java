@@ -0,0 +1,125 @@
+package elevator.elevator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable state of an elevator at a single point in time
+ *
+ * A new snapshot is published by the elevator at every state transition, so
+ * a reader sees the floor, direction, passengers and stops as they were
+ * together, without locking the elevator. Snapshots with the same version
+ * are identical.
+ */
+public final class ElevatorSnapshot {
+
+    private static final int[] NO_STOPS = new int[0];
+
+    private final long version;
+    private final int floor;
+    private final int direction;
+    private final List<Person> passengers;
+    private final int[] stops;
+
+    /**
+     * Gets the version, which increases with every published snapshot
+     *
+     * @return Version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the elevator's floor
+     *
+     * @return Floor
+     */
+    public int getFloor() {
+        return floor;
+    }
+
+    /**
+     * Gets the elevator's direction of travel
+     *
+     * @return 1 when moving up, -1 when moving down, 0 when idle
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the elevator's passengers, the list is shared by consecutive
+     * snapshots for as long as nobody boards or leaves
+     *
+     * @return Unmodifiable list of passengers
+     */
+    public List<Person> getPassengers() {
+        return passengers;
+    }
+
+    /**
+     * Gets the amount of passengers
+     *
+     * @return Passenger count
+     */
+    public int getPassengerCount() {
+        return passengers.size();
+    }
+
+    /**
+     * Gets the requested floors
+     *
+     * @return Pending stops in ascending order
+     */
+    public int[] getStops() {
+        return stops.clone();
+    }
+
+    /**
+     * Gets the amount of requested floors
+     *
+     * @return Pending stops
+     */
+    public int getPendingStops() {
+        return stops.length;
+    }
+
+    /**
+     * Checks if a floor is requested
+     *
+     * @param floor Floor
+     * @return True if the floor is requested
+     */
+    public boolean hasStop(int floor) {
+        return Arrays.binarySearch(stops, floor) >= 0;
+    }
+
+    /**
+     * Elevator snapshot
+     *
+     * @param version Version
+     * @param floor Floor
+     * @param direction Direction
+     * @param passengers Unmodifiable list of passengers, not copied
+     * @param stops Pending stops in ascending order, not copied
+     */
+    ElevatorSnapshot(long version, int floor, int direction, List<Person> passengers, int[] stops) {
+        this.version = version;
+        this.floor = floor;
+        this.direction = direction;
+        this.passengers = passengers;
+        this.stops = stops;
+    }
+
+    /**
+     * Snapshot of an elevator that has not published anything yet
+     *
+     * @param floor Floor
+     */
+    ElevatorSnapshot(int floor) {
+        this(0, floor, 0, Collections.<Person>emptyList(), NO_STOPS);
+    }
+
+}
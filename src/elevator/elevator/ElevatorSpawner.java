@@ -1,14 +1,19 @@
 package elevator.elevator;
 
-import java.util.Random;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import elevator.traffic.SplitMixRandom;
 
 public class ElevatorSpawner {
 
-    private final Random rand = new Random();
+    private final SplitMixRandom rand = new SplitMixRandom(System.nanoTime());
 
     private volatile boolean keepSpawning = true;
-    private final Elevator elevator;
-    private final ElevatorQueuer eq;
+    private volatile ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    private final String name;
+    private final HallCallQueue hall;
 
     /**
      * Spawns passengers randomly in a group
@@ -17,21 +22,73 @@ public class ElevatorSpawner {
      */
     public void spawnGroup(int maxSize) {
         int groupSize = rand.nextInt(maxSize) + 1,
-                floors = elevator.getFloorCount(),
+                bottomFloor = hall.getBottomFloor(),
+                floors = hall.getTopFloor() - bottomFloor + 1,
                 floor,
                 targetFloor;
 
         for (int i = 0; i < groupSize; i++) {
-            floor = elevator.getBottomFloor() + rand.nextInt(floors);
+            floor = bottomFloor + rand.nextInt(floors);
 
             // Bad exclusive random method, random complexity, but it works!
-            while ((targetFloor = elevator.getBottomFloor() + rand.nextInt(floors)) == floor);
+            while ((targetFloor = bottomFloor + rand.nextInt(floors)) == floor);
 
             // Using 0 weight for testing purposes
-            eq.queue(new Person(0, floor, targetFloor));
+            hall.queue(new Person(0, floor, targetFloor));
         }
     }
 
+    /**
+     * Calculates the delay before the next group
+     *
+     * @param minDelay Minimum delay
+     * @param maxDelay Maximum delay
+     * @return Delay
+     */
+    public int nextDelay(int minDelay, int maxDelay) {
+        return minDelay + rand.nextInt(maxDelay - minDelay + 1);
+    }
+
+    /**
+     * Seeds the spawner, the same seed spawns the same sequence of persons,
+     * which is all a threaded run and a simulation have in common
+     *
+     * @param seed Seed
+     */
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+    }
+
+    /**
+     * Writes the state of the spawner's random generator to a checkpoint
+     *
+     * @param out Output
+     * @throws IOException On failure
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(rand.getState());
+    }
+
+    /**
+     * Restores the random generator from a state written by writeState, the
+     * spawner continues with the persons it would have spawned next
+     *
+     * @param in Input
+     * @throws IOException On failure
+     */
+    public void readState(DataInput in) throws IOException {
+        rand.setState(in.readLong());
+    }
+
+    /**
+     * Sets the execution mode of the spawning thread
+     *
+     * @param mode Execution mode
+     */
+    public void setExecutionMode(ExecutionMode mode) {
+        this.executionMode = mode;
+    }
+
     /**
      * Starts spawning passengers
      * 
@@ -45,7 +102,7 @@ public class ElevatorSpawner {
 
             while (keepSpawning) {
                 try {
-                    Thread.sleep(minDelay + (maxDelay - minDelay + 1));
+                    Thread.sleep(nextDelay(minDelay, maxDelay));
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                     return;
@@ -55,7 +112,7 @@ public class ElevatorSpawner {
             }
         };
 
-        new Thread(run, String.format("Elevator%sSpawner", elevator.getElevatorName())).start();
+        executionMode.newThread(run, String.format("Elevator%sSpawner", name)).start();
     }
 
     /**
@@ -72,8 +129,27 @@ public class ElevatorSpawner {
      * @param eq Elevator queuer
      */
     public ElevatorSpawner(Elevator elevator, ElevatorQueuer eq) {
-        this.elevator = elevator;
-        this.eq = eq;
+        this(elevator.getElevatorName(), eq);
+    }
+
+    /**
+     * Elevator bank tester
+     *
+     * @param bank Elevator bank
+     */
+    public ElevatorSpawner(ElevatorBank bank) {
+        this(bank.getName(), bank);
+    }
+
+    /**
+     * Hall call tester
+     *
+     * @param name Spawner name
+     * @param hall Hall call queue
+     */
+    public ElevatorSpawner(String name, HallCallQueue hall) {
+        this.name = name;
+        this.hall = hall;
     }
 
 }
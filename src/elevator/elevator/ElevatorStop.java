@@ -0,0 +1,50 @@
+package elevator.elevator;
+
+/**
+ * Data of a STOP event, the floor the elevator stopped at and the direction
+ * it travelled in when it stopped
+ *
+ * The direction is taken when the elevator stops, so a listener running late
+ * on a queued dispatcher sees it as it was even if the elevator has turned
+ * since.
+ */
+public final class ElevatorStop {
+
+    private final int floor;
+    private final int direction;
+
+    /**
+     * Gets the floor the elevator stopped at
+     *
+     * @return Floor
+     */
+    public int getFloor() {
+        return floor;
+    }
+
+    /**
+     * Gets the direction the elevator travelled in when it stopped
+     *
+     * @return Direction, 0 if it stood still
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("STOP floor %d direction %d", floor, direction);
+    }
+
+    /**
+     * Elevator stop
+     *
+     * @param floor Floor
+     * @param direction Direction
+     */
+    public ElevatorStop(int floor, int direction) {
+        this.floor = floor;
+        this.direction = direction;
+    }
+
+}
@@ -0,0 +1,107 @@
+package elevator.elevator;
+
+import java.lang.reflect.Method;
+
+/**
+ * Kind of threads used to run elevators, spawners and event delivery
+ *
+ * Virtual threads let a single JVM run thousands of elevators, as a blocked
+ * elevator only holds on to a carrier thread while it is actually stepping.
+ * They are looked up at runtime, so the program still runs on JVMs without
+ * them, where VIRTUAL falls back to daemon platform threads. So does a JVM
+ * that has them only as a preview feature that is not enabled.
+ */
+public enum ExecutionMode {
+
+    /**
+     * A dedicated platform thread per task
+     */
+    PLATFORM,
+
+    /**
+     * A virtual thread per task, when supported by the JVM
+     */
+    VIRTUAL;
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_UNSTARTED;
+
+    // Cleared if creating a virtual thread ever fails
+    private static volatile boolean virtualSupported;
+
+    static {
+        Method ofVirtual = null, name = null, unstarted = null;
+
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class);
+            unstarted = builder.getMethod("unstarted", Runnable.class);
+
+            // Java 19 and 20 have the methods, but they throw unless preview
+            // features are enabled
+            ofVirtual.invoke(null);
+            virtualSupported = true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Virtual threads are not available on this JVM
+            virtualSupported = false;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_UNSTARTED = unstarted;
+    }
+
+    /**
+     * Checks if the JVM supports virtual threads
+     *
+     * @return True if virtual threads are supported
+     */
+    public static boolean isVirtualSupported() {
+        return virtualSupported;
+    }
+
+    /**
+     * Gets the mode that is actually used when this mode is requested
+     *
+     * @return PLATFORM if virtual threads are not supported, otherwise this
+     *         mode
+     */
+    public ExecutionMode effective() {
+        return this == VIRTUAL && !isVirtualSupported() ? PLATFORM : this;
+    }
+
+    /**
+     * Creates an unstarted thread running the task
+     *
+     * @param task Task
+     * @param name Thread name
+     * @return Thread
+     */
+    public Thread newThread(Runnable task, String name) {
+        if (this == VIRTUAL) {
+            if (isVirtualSupported()) {
+                try {
+                    Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name);
+
+                    return (Thread) BUILDER_UNSTARTED.invoke(builder, task);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // Falls back from now on rather than failing every time
+                    virtualSupported = false;
+                }
+            }
+
+            // Virtual threads never keep the JVM alive, neither does the
+            // fallback
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+        return new Thread(task, name);
+    }
+
+}
@@ -0,0 +1,29 @@
+package elevator.elevator;
+
+/**
+ * Entry point for persons calling an elevator from a floor
+ */
+public interface HallCallQueue {
+
+    /**
+     * Queues a person (Waits for an elevator to reach the person's floor)
+     *
+     * @param person Person
+     */
+    public void queue(Person person);
+
+    /**
+     * Gets the bottom floor served
+     *
+     * @return Bottom floor
+     */
+    public int getBottomFloor();
+
+    /**
+     * Gets the top floor served
+     *
+     * @return Top floor
+     */
+    public int getTopFloor();
+
+}
@@ -0,0 +1,42 @@
+package elevator.elevator;
+
+/**
+ * Picks the floor an elevator moves to once it has no stops left, rather
+ * than waiting where it stopped last
+ *
+ * A policy is consulted on the thread stepping the elevator, without any of
+ * the elevator's locks held, every time it runs out of stops. Returning the
+ * current floor or StopSet.NONE lets the elevator wait where it is, until a
+ * request arrives or the policy's review delay has passed and it is
+ * consulted again.
+ */
+@FunctionalInterface
+public interface ParkingPolicy {
+
+    /**
+     * Waits at the floor of the last stop
+     */
+    public static final ParkingPolicy NONE = elevator -> StopSet.NONE;
+
+    /**
+     * Gets the floor an idle elevator parks at
+     *
+     * @param elevator Idle elevator
+     * @return Parking floor, within the elevator's floor range, or
+     *         StopSet.NONE to stay
+     */
+    int parkingFloor(Elevator elevator);
+
+    /**
+     * Gets the time after which an elevator left waiting where it is
+     * consults the policy again, so that it follows the demand of the time
+     * of day while idle
+     *
+     * @param elevator Idle elevator
+     * @return Delay in milliseconds, Elevator.IDLE to wait for a request
+     */
+    default long getReviewDelay(Elevator elevator) {
+        return Elevator.IDLE;
+    }
+
+}
@@ -1,11 +1,20 @@
 package elevator.elevator;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 public class Person {
 
     private int floor;
+    private int originFloor;
     private int targetFloor;
     private int weight;
 
+    private volatile long queueTime = -1;
+    private volatile long boardTime = -1;
+    private volatile long ejectTime = -1;
+
     /**
      * Gets the person's current floor
      * 
@@ -15,6 +24,15 @@ public class Person {
         return floor;
     }
 
+    /**
+     * Gets the floor the person was queued at
+     *
+     * @return Origin floor
+     */
+    public int getOriginFloor() {
+        return originFloor;
+    }
+
     /**
      * Gets the person's target floor
      * 
@@ -33,6 +51,51 @@ public class Person {
         return weight;
     }
 
+    /**
+     * Gets the time the person was queued
+     *
+     * @return Time in milliseconds, -1 if not queued
+     */
+    public long getQueueTime() {
+        return queueTime;
+    }
+
+    /**
+     * Gets the time the person boarded an elevator
+     *
+     * @return Time in milliseconds, -1 if not boarded
+     */
+    public long getBoardTime() {
+        return boardTime;
+    }
+
+    /**
+     * Gets the time the person left the elevator
+     *
+     * @return Time in milliseconds, -1 if not ejected
+     */
+    public long getEjectTime() {
+        return ejectTime;
+    }
+
+    /**
+     * Gets the time the person waited for an elevator
+     *
+     * @return Wait time in milliseconds, -1 if not boarded
+     */
+    public long getWaitTime() {
+        return boardTime < 0 || queueTime < 0 ? -1 : boardTime - queueTime;
+    }
+
+    /**
+     * Gets the time the person spent in the elevator
+     *
+     * @return Ride time in milliseconds, -1 if not ejected
+     */
+    public long getRideTime() {
+        return ejectTime < 0 || boardTime < 0 ? -1 : ejectTime - boardTime;
+    }
+
     /**
      * Sets the person's current floor
      *
@@ -42,6 +105,68 @@ public class Person {
         this.floor = floor;
     }
 
+    /**
+     * Sets the time the person was queued
+     *
+     * @param time Time in milliseconds
+     */
+    public void setQueueTime(long time) {
+        this.queueTime = time;
+    }
+
+    /**
+     * Sets the time the person boarded an elevator
+     *
+     * @param time Time in milliseconds
+     */
+    public void setBoardTime(long time) {
+        this.boardTime = time;
+    }
+
+    /**
+     * Sets the time the person left the elevator
+     *
+     * @param time Time in milliseconds
+     */
+    public void setEjectTime(long time) {
+        this.ejectTime = time;
+    }
+
+    /**
+     * Writes the state of a person to a checkpoint
+     *
+     * @param person Person
+     * @param out Output
+     * @throws IOException On failure
+     */
+    static void writeState(Person person, DataOutput out) throws IOException {
+        out.writeInt(person.getWeight());
+        out.writeInt(person.getOriginFloor());
+        out.writeInt(person.getTargetFloor());
+        out.writeInt(person.getFloor());
+        out.writeLong(person.getQueueTime());
+        out.writeLong(person.getBoardTime());
+        out.writeLong(person.getEjectTime());
+    }
+
+    /**
+     * Reads a person written by writeState
+     *
+     * @param in Input
+     * @return Person
+     * @throws IOException On failure
+     */
+    static Person readState(DataInput in) throws IOException {
+        Person person = new Person(in.readInt(), in.readInt(), in.readInt());
+
+        person.setFloor(in.readInt());
+        person.setQueueTime(in.readLong());
+        person.setBoardTime(in.readLong());
+        person.setEjectTime(in.readLong());
+
+        return person;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -88,6 +213,7 @@ public class Person {
     public Person(int weight, int floor, int targetFloor) {
         this.weight = weight;
         this.floor = floor;
+        this.originFloor = floor;
         this.targetFloor = targetFloor;
     }
 
@@ -0,0 +1,100 @@
+package elevator.elevator;
+
+/**
+ * Picks the floor an elevator heads for next among its requested stops
+ *
+ * A strategy is consulted at every step while the elevator holds its queue
+ * lock, and must not change the stop set. A requested current floor is
+ * always served before the strategy is consulted. The target does not have
+ * to be a requested floor, SCAN heads for the end of the shaft.
+ */
+@FunctionalInterface
+public interface SchedulingStrategy {
+
+    /**
+     * Continues in the current direction as long as there are stops ahead
+     * before turning around
+     */
+    public static final SchedulingStrategy LOOK = (stops, floor, direction, bottomFloor, topFloor) -> {
+        int next;
+
+        if (direction >= 0) {
+            next = stops.nextAbove(floor);
+            return next != StopSet.NONE ? next : stops.nextBelow(floor);
+        } else {
+            next = stops.nextBelow(floor);
+            return next != StopSet.NONE ? next : stops.nextAbove(floor);
+        }
+    };
+
+    /**
+     * Sweeps to the end of the shaft before turning around, even if there
+     * are no stops further ahead (elevator algorithm)
+     */
+    public static final SchedulingStrategy SCAN = (stops, floor, direction, bottomFloor, topFloor) -> {
+        int next = direction >= 0 ? stops.nextAbove(floor) : stops.nextBelow(floor);
+
+        if (next != StopSet.NONE) {
+            return next;
+        }
+
+        // An idle elevator heads straight for its stop, and without a floor
+        // range the end of the shaft is unknown
+        if (direction == 0 || (bottomFloor == 0 && topFloor == 0)) {
+            return LOOK.nextStop(stops, floor, direction, bottomFloor, topFloor);
+        }
+
+        if (direction > 0 && floor < topFloor && stops.nextBelow(floor) != StopSet.NONE) {
+            return topFloor;
+        }
+
+        if (direction < 0 && floor > bottomFloor && stops.nextAbove(floor) != StopSet.NONE) {
+            return bottomFloor;
+        }
+
+        return direction > 0 ? stops.nextBelow(floor) : stops.nextAbove(floor);
+    };
+
+    /**
+     * Heads for the closest stop in either direction, ties are broken in the
+     * current direction (shortest seek first)
+     */
+    public static final SchedulingStrategy SHORTEST_SEEK = (stops, floor, direction, bottomFloor, topFloor) -> {
+        int above = stops.nextAbove(floor), below = stops.nextBelow(floor);
+
+        if (above == StopSet.NONE) {
+            return below;
+        }
+
+        if (below == StopSet.NONE) {
+            return above;
+        }
+
+        long up = (long) above - floor, down = (long) floor - below;
+
+        if (up == down) {
+            return direction >= 0 ? above : below;
+        }
+
+        return up < down ? above : below;
+    };
+
+    /**
+     * Serves the stops in the order they were requested (first come, first
+     * served)
+     */
+    public static final SchedulingStrategy FIFO = (stops, floor, direction, bottomFloor, topFloor) -> stops.oldest();
+
+    /**
+     * Picks the next target floor
+     *
+     * @param stops Requested stops, the current floor is not among them
+     * @param floor Current floor
+     * @param direction Current direction, 0 when idle
+     * @param bottomFloor Bottom floor of the elevator's range
+     * @param topFloor Top floor of the elevator's range
+     * @return Target floor, or StopSet.NONE if there are no stops
+     */
+    public int nextStop(StopSet stops, int floor, int direction, int bottomFloor, int topFloor);
+
+}
@@ -0,0 +1,340 @@
+package elevator.elevator;
+
+import java.util.Arrays;
+
+/**
+ * Set of requested floors, stored as a bitset indexed by floor
+ *
+ * Adding, removing and looking up a floor is constant time, finding the
+ * closest stop above or below a floor scans one bit per floor in 64 floor
+ * words. The set only allocates when a floor outside of its current range is
+ * added. The order the stops were added in is kept for first come, first
+ * served scheduling. The set is not thread safe.
+ */
+public class StopSet {
+
+    /**
+     * Returned by the lookups when there is no such stop
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private long[] words;
+    private int offset;
+    private int size;
+
+    // Sequence number of the latest addition of every floor, by bit index
+    private long[] added;
+    private long sequence;
+
+    /**
+     * Gets the bit index of a floor, growing the set if needed
+     *
+     * @param floor Floor
+     * @return Bit index
+     */
+    private int grow(int floor) {
+        if (floor < offset) {
+            int shift = (int) Math.min((long) offset - floor + 63 & ~63L, Integer.MAX_VALUE - 63);
+            long[] grown = new long[words.length + shift / 64];
+
+            long[] order = new long[grown.length << 6];
+
+            System.arraycopy(words, 0, grown, shift / 64, words.length);
+            System.arraycopy(added, 0, order, shift, added.length);
+            words = grown;
+            added = order;
+            offset -= shift;
+        }
+
+        int index = floor - offset;
+
+        if (index >> 6 >= words.length) {
+            long[] grown = new long[Math.max(words.length * 2, (index >> 6) + 1)];
+
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+            added = Arrays.copyOf(added, grown.length << 6);
+        }
+
+        return index;
+    }
+
+    /**
+     * Gets the bit index of a floor
+     *
+     * @param floor Floor
+     * @return Bit index, or -1 if the floor is outside of the set
+     */
+    private int index(int floor) {
+        long index = (long) floor - offset;
+
+        return index < 0 || index >> 6 >= words.length ? -1 : (int) index;
+    }
+
+    /**
+     * Finds the lowest set bit at or after the index
+     *
+     * @param from Bit index
+     * @return Bit index or -1
+     */
+    private int nextSetBit(int from) {
+        int w = from >> 6;
+
+        if (w >= words.length) {
+            return -1;
+        }
+
+        long word = words[w] & (-1L << from);
+
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+
+            if (++w == words.length) {
+                return -1;
+            }
+
+            word = words[w];
+        }
+    }
+
+    /**
+     * Finds the highest set bit at or before the index
+     *
+     * @param from Bit index
+     * @return Bit index or -1
+     */
+    private int previousSetBit(int from) {
+        if (from < 0) {
+            return -1;
+        }
+
+        int w = Math.min(from >> 6, words.length - 1);
+        long word = w == from >> 6 ? words[w] & (-1L >>> (63 - (from & 63))) : words[w];
+
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+
+            if (w-- == 0) {
+                return -1;
+            }
+
+            word = words[w];
+        }
+    }
+
+    /**
+     * Adds a stop
+     *
+     * @param floor Floor
+     * @return True if the stop was added, false if it was already requested
+     */
+    public boolean add(int floor) {
+        int index = grow(floor);
+        long mask = 1L << index;
+
+        if ((words[index >> 6] & mask) != 0) {
+            return false;
+        }
+
+        words[index >> 6] |= mask;
+        added[index] = ++sequence;
+        size++;
+
+        return true;
+    }
+
+    /**
+     * Removes a stop
+     *
+     * @param floor Floor
+     * @return True if the stop was removed
+     */
+    public boolean remove(int floor) {
+        int index = index(floor);
+
+        if (index < 0 || (words[index >> 6] & 1L << index) == 0) {
+            return false;
+        }
+
+        words[index >> 6] &= ~(1L << index);
+        size--;
+
+        return true;
+    }
+
+    /**
+     * Checks if a floor is requested
+     *
+     * @param floor Floor
+     * @return True if the floor is requested
+     */
+    public boolean contains(int floor) {
+        int index = index(floor);
+
+        return index >= 0 && (words[index >> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * Gets the closest stop above a floor
+     *
+     * @param floor Floor
+     * @return Stop or NONE
+     */
+    public int nextAbove(int floor) {
+        long from = Math.max(0, (long) floor - offset + 1);
+
+        if (size == 0 || from >= (long) words.length << 6) {
+            return NONE;
+        }
+
+        int index = nextSetBit((int) from);
+
+        return index < 0 ? NONE : index + offset;
+    }
+
+    /**
+     * Gets the closest stop below a floor
+     *
+     * @param floor Floor
+     * @return Stop or NONE
+     */
+    public int nextBelow(int floor) {
+        long from = (long) floor - offset - 1;
+
+        if (size == 0 || from < 0) {
+            return NONE;
+        }
+
+        int index = previousSetBit((int) Math.min(from, Integer.MAX_VALUE));
+
+        return index < 0 ? NONE : index + offset;
+    }
+
+    /**
+     * Gets the lowest stop
+     *
+     * @return Stop or NONE
+     */
+    public int lowest() {
+        int index = size == 0 ? -1 : nextSetBit(0);
+
+        return index < 0 ? NONE : index + offset;
+    }
+
+    /**
+     * Gets the highest stop
+     *
+     * @return Stop or NONE
+     */
+    public int highest() {
+        int index = size == 0 ? -1 : previousSetBit((words.length << 6) - 1);
+
+        return index < 0 ? NONE : index + offset;
+    }
+
+    /**
+     * Gets the stop that has been requested the longest
+     *
+     * @return Stop or NONE
+     */
+    public int oldest() {
+        int oldest = -1;
+
+        for (int index = size == 0 ? -1 : nextSetBit(0); index >= 0; index = nextSetBit(index + 1)) {
+            if (oldest < 0 || added[index] < added[oldest]) {
+                oldest = index;
+            }
+        }
+
+        return oldest < 0 ? NONE : oldest + offset;
+    }
+
+    /**
+     * Removes every stop
+     */
+    public void clear() {
+        Arrays.fill(words, 0);
+        size = 0;
+    }
+
+    /**
+     * Gets the stops in ascending order
+     *
+     * @return Stops
+     */
+    public int[] toArray() {
+        int[] stops = new int[size];
+        int i = 0;
+
+        for (int index = nextSetBit(0); index >= 0 && i < size; index = nextSetBit(index + 1)) {
+            stops[i++] = index + offset;
+        }
+
+        return stops;
+    }
+
+    /**
+     * Gets the stops in the order they were requested
+     *
+     * @return Stops, the oldest first
+     */
+    public int[] toArrayByAge() {
+        int[] stops = toArray();
+
+        // Insertion sort by sequence number, stop sets are small
+        for (int i = 1; i < stops.length; i++) {
+            int stop = stops[i], j = i;
+            long age = added[stop - offset];
+
+            for (; j > 0 && added[stops[j - 1] - offset] > age; j--) {
+                stops[j] = stops[j - 1];
+            }
+
+            stops[j] = stop;
+        }
+
+        return stops;
+    }
+
+    /**
+     * Gets the amount of stops
+     *
+     * @return Stop count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if there are no stops
+     *
+     * @return True if there are no stops
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Stop set covering the given floors, other floors grow the set
+     *
+     * @param bottomFloor Bottom floor
+     * @param topFloor Top floor
+     */
+    public StopSet(int bottomFloor, int topFloor) {
+        this.offset = bottomFloor;
+        this.words = new long[Math.max(1, (topFloor - bottomFloor) / 64 + 1)];
+        this.added = new long[words.length << 6];
+    }
+
+    /**
+     * Stop set starting at floor 0
+     */
+    public StopSet() {
+        this(0, 63);
+    }
+
+}
@@ -0,0 +1,147 @@
+package elevator.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with a fixed memory footprint
+ *
+ * Values below 64 are counted exactly, larger values are counted in
+ * logarithmic buckets of 32 sub-buckets each (HDR style), which keeps the
+ * relative error of the percentiles below about 3%. Values up to about 2^40
+ * milliseconds (35 years) are tracked, larger values are clamped.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR = SUB_COUNT * 2;
+    private static final int MAX_EXPONENT = 35;
+    private static final int BUCKETS = LINEAR + MAX_EXPONENT * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Gets the bucket of a value
+     *
+     * @param value Value
+     * @return Bucket index
+     */
+    private static int bucket(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+
+        return LINEAR + (exponent - 1) * SUB_COUNT + (int) (value >> exponent) - SUB_COUNT;
+    }
+
+    /**
+     * Gets the highest value counted in a bucket
+     *
+     * @param bucket Bucket index
+     * @return Highest value
+     */
+    private static long highestValue(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+
+        int exponent = (bucket - LINEAR) / SUB_COUNT + 1,
+                sub = (bucket - LINEAR) % SUB_COUNT + SUB_COUNT;
+
+        return ((long) (sub + 1) << exponent) - 1;
+    }
+
+    /**
+     * Records a value
+     *
+     * @param value Value, negative values are ignored
+     */
+    public void record(long value) {
+        if (value < 0) {
+            return;
+        }
+
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the value at the given percentile
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Value, 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total)), seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+
+            if (seen >= rank) {
+                return Math.min(highestValue(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Gets the amount of recorded values
+     *
+     * @return Count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean of the recorded values
+     *
+     * @return Mean, 0 if nothing was recorded
+     */
+    public double getMean() {
+        long total = count.sum();
+
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * Gets the highest recorded value
+     *
+     * @return Max
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets a one line summary of the histogram
+     *
+     * @return Summary
+     */
+    public String getSummary() {
+        return String.format("n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+                getCount(), getMean(),
+                getPercentile(50), getPercentile(90), getPercentile(99), getMax());
+    }
+
+}
@@ -0,0 +1,238 @@
+package elevator.metrics;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorAction;
+import elevator.elevator.ElevatorBank;
+import elevator.elevator.ElevatorEventRing;
+import elevator.elevator.Person;
+
+/**
+ * Passenger level service metrics
+ *
+ * Records the time from being queued to boarding (wait time) and the time
+ * from boarding to leaving the elevator (ride time), both per origin floor
+ * and per elevator. All times are in milliseconds.
+ */
+public class TripMetrics {
+
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram rideTimes = new LatencyHistogram();
+
+    private final ConcurrentMap<Integer, LatencyHistogram> floorWaitTimes = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Integer, LatencyHistogram> floorRideTimes = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> elevatorWaitTimes = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> elevatorRideTimes = new ConcurrentSkipListMap<>();
+
+    /**
+     * Gets the histogram of a key, creating it if necessary
+     *
+     * @param histograms Histograms by key
+     * @param key Key
+     * @return Histogram
+     */
+    private static <K> LatencyHistogram histogram(ConcurrentMap<K, LatencyHistogram> histograms, K key) {
+        return histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Writes the histograms of the floors and of the elevators
+     *
+     * @param out Output
+     * @param floors Histograms by floor
+     * @param elevators Histograms by elevator name
+     */
+    private static void dump(PrintStream out, Map<Integer, LatencyHistogram> floors,
+            Map<String, LatencyHistogram> elevators) {
+        for (Map.Entry<Integer, LatencyHistogram> entry : floors.entrySet()) {
+            out.printf("                floor %-3d %s%n", entry.getKey(), entry.getValue().getSummary());
+        }
+
+        for (Map.Entry<String, LatencyHistogram> entry : elevators.entrySet()) {
+            out.printf("                %-8s %s%n", entry.getKey(), entry.getValue().getSummary());
+        }
+    }
+
+    /**
+     * Records a person boarding an elevator
+     *
+     * @param elevator Elevator
+     * @param person Person
+     */
+    private void recordBoard(Elevator elevator, Person person) {
+        long wait = person.getWaitTime();
+
+        waitTimes.record(wait);
+        histogram(floorWaitTimes, person.getOriginFloor()).record(wait);
+        histogram(elevatorWaitTimes, elevator.getElevatorName()).record(wait);
+    }
+
+    /**
+     * Records a person leaving an elevator
+     *
+     * @param elevator Elevator
+     * @param person Person
+     */
+    private void recordEject(Elevator elevator, Person person) {
+        long ride = person.getRideTime();
+
+        rideTimes.record(ride);
+        histogram(floorRideTimes, person.getOriginFloor()).record(ride);
+        histogram(elevatorRideTimes, elevator.getElevatorName()).record(ride);
+    }
+
+    /**
+     * Starts recording the trips of an elevator
+     *
+     * @param elevator Elevator
+     */
+    public void attach(Elevator elevator) {
+        elevator.addListener(ElevatorAction.BOARD, p -> recordBoard(elevator, (Person) p));
+        elevator.addListener(ElevatorAction.EJECT, p -> recordEject(elevator, (Person) p));
+    }
+
+    /**
+     * Starts recording the trips of an elevator, the rides from its event
+     * ring without allocating per event
+     *
+     * @param elevator Elevator
+     * @param ring Event ring of the elevator
+     * @return Cursor of the metrics, polled by the caller or started on a
+     *         thread of its own
+     */
+    public ElevatorEventRing.Cursor attach(Elevator elevator, ElevatorEventRing ring) {
+        LatencyHistogram elevatorRides = histogram(elevatorRideTimes, elevator.getElevatorName());
+
+        // The histograms of the elevator's floors, looked up once per floor
+        int bottomFloor = elevator.getBottomFloor();
+        LatencyHistogram[] floorRides = new LatencyHistogram[elevator.getTopFloor() - bottomFloor + 1];
+
+        elevator.addListener(ElevatorAction.BOARD, p -> recordBoard(elevator, (Person) p));
+
+        return ring.addConsumer((event, endOfBatch) -> {
+            if (event.getAction() == ElevatorAction.EJECT) {
+                long ride = event.getRideTime();
+                int floor = event.getOriginFloor(), index = floor - bottomFloor;
+
+                rideTimes.record(ride);
+                elevatorRides.record(ride);
+
+                if (index >= 0 && index < floorRides.length) {
+                    if (floorRides[index] == null) {
+                        floorRides[index] = histogram(floorRideTimes, floor);
+                    }
+
+                    floorRides[index].record(ride);
+                } else {
+                    histogram(floorRideTimes, floor).record(ride);
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts recording the trips of every elevator of a bank
+     *
+     * @param bank Elevator bank
+     */
+    public void attach(ElevatorBank bank) {
+        bank.getCars().forEach(this::attach);
+    }
+
+    /**
+     * Gets the wait times of all floors
+     *
+     * @return Wait times
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Gets the wait times of the persons queued at a floor
+     *
+     * @param floor Floor
+     * @return Wait times, an empty histogram not kept by the metrics if
+     *         nobody boarded there yet
+     */
+    public LatencyHistogram getWaitTimes(int floor) {
+        LatencyHistogram histogram = floorWaitTimes.get(floor);
+
+        return histogram != null ? histogram : new LatencyHistogram();
+    }
+
+    /**
+     * Gets the wait times of the persons who boarded an elevator
+     *
+     * @param elevatorName Elevator name
+     * @return Wait times, an empty histogram not kept by the metrics if
+     *         nobody boarded the elevator yet
+     */
+    public LatencyHistogram getWaitTimes(String elevatorName) {
+        LatencyHistogram histogram = elevatorWaitTimes.get(elevatorName);
+
+        return histogram != null ? histogram : new LatencyHistogram();
+    }
+
+    /**
+     * Gets the ride times of all elevators
+     *
+     * @return Ride times
+     */
+    public LatencyHistogram getRideTimes() {
+        return rideTimes;
+    }
+
+    /**
+     * Gets the ride times of the persons who boarded at a floor
+     *
+     * @param floor Origin floor
+     * @return Ride times, an empty histogram not kept by the metrics if
+     *         nobody who boarded there arrived yet
+     */
+    public LatencyHistogram getRideTimes(int floor) {
+        LatencyHistogram histogram = floorRideTimes.get(floor);
+
+        return histogram != null ? histogram : new LatencyHistogram();
+    }
+
+    /**
+     * Gets the ride times of an elevator
+     *
+     * @param elevatorName Elevator name
+     * @return Ride times, an empty histogram not kept by the metrics if
+     *         nobody rode the elevator yet
+     */
+    public LatencyHistogram getRideTimes(String elevatorName) {
+        LatencyHistogram histogram = elevatorRideTimes.get(elevatorName);
+
+        return histogram != null ? histogram : new LatencyHistogram();
+    }
+
+    /**
+     * Writes every histogram
+     *
+     * @param out Output
+     */
+    public void dump(PrintStream out) {
+        out.println("Wait time (ms)  all      " + waitTimes.getSummary());
+        dump(out, floorWaitTimes, elevatorWaitTimes);
+
+        out.println("Ride time (ms)  all      " + rideTimes.getSummary());
+        dump(out, floorRideTimes, elevatorRideTimes);
+    }
+
+    /**
+     * Writes every histogram when the program exits
+     *
+     * @param out Output
+     */
+    public void dumpOnShutdown(PrintStream out) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(out), "TripMetricsDump"));
+    }
+
+}
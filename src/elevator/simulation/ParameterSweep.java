@@ -0,0 +1,356 @@
+package elevator.simulation;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import elevator.elevator.ElevatorBank;
+import elevator.metrics.LatencyHistogram;
+import elevator.metrics.TripMetrics;
+import elevator.traffic.TrafficGenerator;
+import elevator.traffic.TrafficProfile;
+
+/**
+ * Runs a headless simulation for every combination of a grid of bank
+ * parameters, in parallel on a fork/join pool, for capacity planning
+ *
+ * Every simulation is independent, single threaded and seeded with the same
+ * seed, so the results do not depend on the parallelism and every point of
+ * the grid sees the same arrivals.
+ */
+public class ParameterSweep {
+
+    /**
+     * Single combination of the parameters of a bank
+     */
+    public static final class Point {
+
+        private final int cars;
+        private final int floors;
+        private final int maxPeople;
+        private final int maxWeight;
+        private final int moveDelay;
+        private final int stopDelay;
+
+        /**
+         * Creates a bank with the point's parameters, serving floors 0 up to
+         * the floor count
+         *
+         * @return Elevator bank
+         */
+        public ElevatorBank createBank() {
+            ElevatorBank bank = new ElevatorBank("Sweep", cars, 0, floors - 1);
+            bank.setMaxPeople(maxPeople);
+            bank.setMaxWeight(maxWeight);
+            bank.setMoveDelay(moveDelay);
+            bank.setStopDelay(stopDelay);
+
+            return bank;
+        }
+
+        /**
+         * Gets the amount of elevators
+         *
+         * @return Car count
+         */
+        public int getCarCount() {
+            return cars;
+        }
+
+        /**
+         * Gets the amount of floors
+         *
+         * @return Floor count
+         */
+        public int getFloorCount() {
+            return floors;
+        }
+
+        /**
+         * Gets the maximum amount of people of every elevator
+         *
+         * @return Maximum amount of people
+         */
+        public int getMaxPeople() {
+            return maxPeople;
+        }
+
+        /**
+         * Gets the max weight of every elevator
+         *
+         * @return Max weight
+         */
+        public int getMaxWeight() {
+            return maxWeight;
+        }
+
+        /**
+         * Gets the movement delay of every elevator
+         *
+         * @return Movement delay
+         */
+        public int getMoveDelay() {
+            return moveDelay;
+        }
+
+        /**
+         * Gets the stop delay of every elevator
+         *
+         * @return Stop delay
+         */
+        public int getStopDelay() {
+            return stopDelay;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%4d %6d %6d %6d %6d %6d",
+                    cars, floors, maxPeople, maxWeight, moveDelay, stopDelay);
+        }
+
+        /**
+         * Parameter combination
+         *
+         * @param cars Amount of elevators
+         * @param floors Amount of floors
+         * @param maxPeople Maximum amount of people per elevator
+         * @param maxWeight Max weight per elevator
+         * @param moveDelay Movement delay in milliseconds
+         * @param stopDelay Stop delay in milliseconds
+         */
+        public Point(int cars, int floors, int maxPeople, int maxWeight, int moveDelay, int stopDelay) {
+            this.cars = cars;
+            this.floors = floors;
+            this.maxPeople = maxPeople;
+            this.maxWeight = maxWeight;
+            this.moveDelay = moveDelay;
+            this.stopDelay = stopDelay;
+        }
+
+    }
+
+    /**
+     * Splits a range of points in halves until single points are left, which
+     * are simulated
+     */
+    private class SweepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Point> points;
+        private final SimulationResult[] results;
+        private final long duration;
+        private final int from;
+        private final int to;
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = simulate(points.get(from), duration);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+
+            invokeAll(new SweepTask(points, results, duration, from, mid),
+                    new SweepTask(points, results, duration, mid, to));
+        }
+
+        public SweepTask(List<Point> points, SimulationResult[] results, long duration, int from, int to) {
+            this.points = points;
+            this.results = results;
+            this.duration = duration;
+            this.from = from;
+            this.to = to;
+        }
+
+    }
+
+    private final TrafficProfile profile;
+    private final long seed;
+
+    private int[] cars = { 1 };
+    private int[] floors = { 10 };
+    private int[] maxPeople = { 10 };
+    private int[] maxWeight = { 800 };
+    private int[] moveDelays = { 1500 };
+    private int[] stopDelays = { 5000 };
+
+    /**
+     * Gets every combination of the parameters, the last parameter varying
+     * fastest
+     *
+     * @return Points of the grid
+     */
+    public List<Point> getPoints() {
+        List<Point> points = new ArrayList<>();
+
+        for (int c : cars) {
+            for (int f : floors) {
+                for (int p : maxPeople) {
+                    for (int w : maxWeight) {
+                        for (int m : moveDelays) {
+                            for (int s : stopDelays) {
+                                points.add(new Point(c, f, p, w, m, s));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return Collections.unmodifiableList(points);
+    }
+
+    /**
+     * Simulates a single point of the grid on the calling thread
+     *
+     * @param point Point
+     * @param duration Simulated duration in milliseconds
+     * @return Result
+     */
+    public SimulationResult simulate(Point point, long duration) {
+        Simulation sim = new Simulation(seed);
+        ElevatorBank bank = point.createBank();
+        TripMetrics metrics = new TripMetrics();
+        TrafficGenerator traffic = new TrafficGenerator(profile, bank, seed);
+
+        sim.attach(bank);
+        metrics.attach(bank);
+        sim.addTraffic(traffic);
+        sim.runFor(duration);
+
+        return new SimulationResult(point.toString(), duration, traffic.getArrivalCount(), metrics);
+    }
+
+    /**
+     * Simulates every point of the grid on a pool
+     *
+     * @param pool Fork/join pool
+     * @param duration Simulated duration in milliseconds
+     * @return Results in the order of getPoints
+     */
+    public List<SimulationResult> run(ForkJoinPool pool, long duration) {
+        List<Point> points = getPoints();
+        SimulationResult[] results = new SimulationResult[points.size()];
+
+        if (!points.isEmpty()) {
+            pool.invoke(new SweepTask(points, results, duration, 0, points.size()));
+        }
+
+        List<SimulationResult> list = new ArrayList<>(results.length);
+        Collections.addAll(list, results);
+
+        return list;
+    }
+
+    /**
+     * Simulates every point of the grid on the common pool, which has a
+     * worker per core
+     *
+     * @param duration Simulated duration in milliseconds
+     * @return Results in the order of getPoints
+     */
+    public List<SimulationResult> run(long duration) {
+        return run(ForkJoinPool.commonPool(), duration);
+    }
+
+    /**
+     * Prints a table of the parameters and the results of every point, times
+     * in seconds
+     *
+     * @param results Results of run
+     * @param out Output stream
+     */
+    public static void print(List<SimulationResult> results, PrintStream out) {
+        out.println(String.format(Locale.ROOT, "%4s %6s %6s %6s %6s %6s %9s %8s %10s %8s %8s %8s %8s",
+                "cars", "floors", "people", "weight", "move", "stop",
+                "trips", "waiting", "trips/h", "wait avg", "p50", "p90", "p99"));
+
+        for (SimulationResult result : results) {
+            LatencyHistogram wait = result.getWaitTimes();
+
+            out.println(String.format(Locale.ROOT, "%s %9d %8d %10.1f %8.1f %8.1f %8.1f %8.1f",
+                    result.getName(), result.getTripCount(), result.getWaitingCount(),
+                    result.getThroughput(), wait.getMean() / 1000,
+                    wait.getPercentile(50) / 1000.0, wait.getPercentile(90) / 1000.0,
+                    wait.getPercentile(99) / 1000.0));
+        }
+    }
+
+    /**
+     * Sets the car counts to try
+     *
+     * @param values Car counts
+     */
+    public void setCarCounts(int... values) {
+        this.cars = values.clone();
+    }
+
+    /**
+     * Sets the floor counts to try
+     *
+     * @param values Floor counts
+     */
+    public void setFloorCounts(int... values) {
+        this.floors = values.clone();
+    }
+
+    /**
+     * Sets the maximum amounts of people per elevator to try
+     *
+     * @param values Maximum amounts of people, at least 1
+     */
+    public void setMaxPeople(int... values) {
+        for (int value : values) {
+            if (value < 1) {
+                throw new IllegalArgumentException("An elevator must take at least one person");
+            }
+        }
+
+        this.maxPeople = values.clone();
+    }
+
+    /**
+     * Sets the max weights per elevator to try
+     *
+     * @param values Max weights
+     */
+    public void setMaxWeights(int... values) {
+        this.maxWeight = values.clone();
+    }
+
+    /**
+     * Sets the movement delays to try
+     *
+     * @param values Movement delays in milliseconds
+     */
+    public void setMoveDelays(int... values) {
+        this.moveDelays = values.clone();
+    }
+
+    /**
+     * Sets the stop delays to try
+     *
+     * @param values Stop delays in milliseconds
+     */
+    public void setStopDelays(int... values) {
+        this.stopDelays = values.clone();
+    }
+
+    /**
+     * Parameter sweep, every parameter has a single default value until set
+     *
+     * @param profile Traffic profile of every simulation
+     * @param seed Seed of the traffic
+     */
+    public ParameterSweep(TrafficProfile profile, long seed) {
+        this.profile = profile;
+        this.seed = seed;
+    }
+
+}
@@ -0,0 +1,561 @@
+package elevator.simulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorAction;
+import elevator.elevator.ElevatorBank;
+import elevator.elevator.ElevatorDispatcher;
+import elevator.elevator.ElevatorEventRing;
+import elevator.elevator.ElevatorQueuer;
+import elevator.elevator.ElevatorSpawner;
+import elevator.traffic.TrafficGenerator;
+
+/**
+ * Headless discrete-event simulation
+ *
+ * Elevators and spawners are driven by scheduled events on a virtual clock
+ * instead of sleeping threads, so a simulated day runs as fast as the events
+ * can be processed. Everything runs on the thread calling run, which makes a
+ * simulation deterministic for a given seed.
+ *
+ * A simulation does not reproduce a threaded run. A threaded spawner seeded
+ * the same way spawns the same persons, but threaded elevators step after
+ * wall clock sleeps and deliver their events on other threads. Which car a
+ * call is assigned to, who boards at a stop and the resulting wait and ride
+ * times can therefore differ between the two modes.
+ *
+ * The state of the attached elevators, queues, spawners and traffic
+ * generators, and their scheduled events, can be checkpointed between events
+ * and restored into a simulation set up the same way. Tasks scheduled
+ * directly with schedule are not part of a checkpoint.
+ */
+public class Simulation implements SimulationClock {
+
+    private static class Event implements Comparable<Event> {
+
+        private final long time;
+        private final long sequence;
+        private final Object owner;
+        private final Runnable task;
+
+        @Override
+        public int compareTo(Event other) {
+            if (time != other.time) {
+                return Long.compare(time, other.time);
+            }
+
+            return Long.compare(sequence, other.sequence);
+        }
+
+        public Event(long time, long sequence, Object owner, Runnable task) {
+            this.time = time;
+            this.sequence = sequence;
+            this.owner = owner;
+            this.task = task;
+        }
+
+    }
+
+    private static class Spawning {
+
+        private final ElevatorSpawner spawner;
+        private final int minDelay;
+        private final int maxDelay;
+        private final int maxGroup;
+
+        public Spawning(ElevatorSpawner spawner, int minDelay, int maxDelay, int maxGroup) {
+            this.spawner = spawner;
+            this.minDelay = minDelay;
+            this.maxDelay = maxDelay;
+            this.maxGroup = maxGroup;
+        }
+
+    }
+
+    private static final int CHECKPOINT_MAGIC = 0x454C5643; // "ELVC"
+    private static final int CHECKPOINT_VERSION = 2;
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+
+    // Checkpointed components in the order they were added, and the next
+    // event scheduled by each of them
+    private final List<Elevator> elevators = new ArrayList<>();
+    private final List<ElevatorQueuer> queuers = new ArrayList<>();
+    private final List<ElevatorBank> banks = new ArrayList<>();
+    private final List<Spawning> spawnings = new ArrayList<>();
+    private final List<TrafficGenerator> generators = new ArrayList<>();
+    private final Map<Object, Event> pending = new IdentityHashMap<>();
+
+    private final long seed;
+    private long now;
+    private long sequence;
+    private long processed;
+    private int spawners;
+
+    /**
+     * Schedules the next event of a component
+     *
+     * @param owner Component
+     * @param delay Delay in milliseconds from the current time
+     * @param task Task
+     */
+    private void schedule(Object owner, long delay, Runnable task) {
+        Event event = new Event(now + delay, sequence++, owner, task);
+
+        events.add(event);
+        pending.put(owner, event);
+    }
+
+    /**
+     * Steps the elevator and schedules its next step
+     *
+     * @param elevator Elevator
+     */
+    private void stepElevator(Elevator elevator) {
+        long delay = elevator.step();
+        ElevatorEventRing ring = elevator.getEventRing();
+
+        // Hands the events of the step to the consumers of the ring that
+        // have no thread of their own
+        if (ring != null) {
+            ring.poll();
+        }
+
+        if (delay != Elevator.IDLE) {
+            schedule(elevator, delay, () -> stepElevator(elevator));
+        }
+    }
+
+    /**
+     * Spawns a group and schedules the next group
+     *
+     * @param spawning Spawner and its delays
+     */
+    private void spawnGroup(Spawning spawning) {
+        spawning.spawner.spawnGroup(spawning.maxGroup);
+
+        scheduleGroup(spawning);
+    }
+
+    /**
+     * Schedules the next group of a spawner
+     *
+     * @param spawning Spawner and its delays
+     */
+    private void scheduleGroup(Spawning spawning) {
+        schedule(spawning, spawning.spawner.nextDelay(spawning.minDelay, spawning.maxDelay),
+                () -> spawnGroup(spawning));
+    }
+
+    /**
+     * Schedules the next arrival of a traffic generator
+     *
+     * @param traffic Traffic generator
+     */
+    private void scheduleArrival(TrafficGenerator traffic) {
+        long interval = traffic.nextInterval();
+
+        if (interval >= 0) {
+            schedule(traffic, interval, () -> arrive(traffic));
+        }
+    }
+
+    /**
+     * Spawns the arrival of a traffic generator and schedules the next one
+     *
+     * @param traffic Traffic generator
+     */
+    private void arrive(TrafficGenerator traffic) {
+        traffic.spawn();
+        scheduleArrival(traffic);
+    }
+
+    /**
+     * Writes the next event of a component to a checkpoint
+     *
+     * @param owner Component
+     * @param out Output
+     * @throws IOException On failure
+     */
+    private void writeEvent(Object owner, DataOutput out) throws IOException {
+        Event event = pending.get(owner);
+
+        out.writeLong(event == null ? -1 : event.time);
+        out.writeLong(event == null ? -1 : event.sequence);
+    }
+
+    /**
+     * Reads the next event of a component from a checkpoint and schedules it
+     *
+     * @param owner Component
+     * @param in Input
+     * @param task Task of the event
+     * @throws IOException On failure
+     */
+    private void readEvent(Object owner, DataInput in, Runnable task) throws IOException {
+        long time = in.readLong(), sequence = in.readLong();
+
+        if (time >= 0) {
+            Event event = new Event(time, sequence, owner, task);
+
+            events.add(event);
+            pending.put(owner, event);
+        }
+    }
+
+    /**
+     * Checks a component count read from a checkpoint
+     *
+     * @param count Count in the checkpoint
+     * @param expected Count in the simulation
+     * @param component Name of the components
+     * @throws IOException If the counts differ
+     */
+    private static void checkCount(int count, int expected, String component) throws IOException {
+        if (count != expected) {
+            throw new IOException(String.format("Checkpoint has %d %s, the simulation has %d",
+                    count, component, expected));
+        }
+    }
+
+    /**
+     * Schedules a task
+     *
+     * @param delay Delay in milliseconds from the current time
+     * @param task Task
+     */
+    public void schedule(long delay, Runnable task) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Negative delay");
+        }
+
+        events.add(new Event(now + delay, sequence++, null, task));
+    }
+
+    /**
+     * Attaches an elevator to the simulation
+     *
+     * Events are delivered directly on the simulation thread and the
+     * elevator is stepped by the scheduler. The elevator must not be running
+     * on a thread of its own.
+     *
+     * @param elevator Elevator
+     */
+    public void attach(Elevator elevator) {
+        elevator.setClock(this);
+
+        if (elevator.getDispatcher().getCapacity() != 0) {
+            elevator.setDispatcher(new ElevatorDispatcher(elevator.getElevatorName(), 0));
+        }
+
+        // Wakes the elevator up when an idle elevator receives a request
+        elevator.addListener(ElevatorAction.START, floor -> {
+            schedule(elevator, 0, () -> stepElevator(elevator));
+        });
+
+        elevators.add(elevator);
+        schedule(elevator, 0, () -> stepElevator(elevator));
+    }
+
+    /**
+     * Attaches the elevator of a queuer to the simulation, the waiting
+     * persons are part of the checkpoints
+     *
+     * @param queuer Elevator queuer
+     */
+    public void attach(ElevatorQueuer queuer) {
+        attach(queuer.getElevator());
+        queuers.add(queuer);
+    }
+
+    /**
+     * Attaches every elevator of a bank to the simulation
+     *
+     * @param bank Elevator bank
+     */
+    public void attach(ElevatorBank bank) {
+        for (int i = 0; i < bank.getCarCount(); i++) {
+            attach(bank.getQueuer(i));
+        }
+
+        bank.setClock(this);
+        banks.add(bank);
+    }
+
+    /**
+     * Adds a spawner spawning groups with the given delays, the spawner is
+     * seeded from the simulation seed
+     *
+     * @param spawner Spawner
+     * @param minDelay Minimum delay
+     * @param maxDelay Maximum delay
+     * @param maxGroup Max group size
+     */
+    public void addSpawner(ElevatorSpawner spawner, int minDelay, int maxDelay, int maxGroup) {
+        Spawning spawning = new Spawning(spawner, minDelay, maxDelay, maxGroup);
+
+        spawner.setSeed(seed + spawners++);
+
+        spawnings.add(spawning);
+        scheduleGroup(spawning);
+    }
+
+    /**
+     * Adds a traffic generator, its profile starts at the current time. The
+     * generator is seeded from the simulation seed.
+     *
+     * @param traffic Traffic generator
+     */
+    public void addTraffic(TrafficGenerator traffic) {
+        traffic.setSeed(seed + spawners++);
+
+        generators.add(traffic);
+        scheduleArrival(traffic);
+    }
+
+    /**
+     * Writes a checkpoint of the simulation, between two events
+     *
+     * @param out Output
+     * @throws IOException On failure
+     */
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        out.writeLong(now);
+        out.writeLong(sequence);
+        out.writeLong(processed);
+
+        out.writeInt(elevators.size());
+
+        for (Elevator elevator : elevators) {
+            out.writeUTF(elevator.getElevatorName());
+            writeEvent(elevator, out);
+            elevator.writeState(out);
+        }
+
+        out.writeInt(queuers.size());
+
+        for (ElevatorQueuer queuer : queuers) {
+            queuer.writeState(out);
+        }
+
+        out.writeInt(banks.size());
+
+        for (ElevatorBank bank : banks) {
+            bank.writeState(out);
+        }
+
+        out.writeInt(spawnings.size());
+
+        for (Spawning spawning : spawnings) {
+            writeEvent(spawning, out);
+            spawning.spawner.writeState(out);
+        }
+
+        out.writeInt(generators.size());
+
+        for (TrafficGenerator traffic : generators) {
+            writeEvent(traffic, out);
+            traffic.writeState(out);
+        }
+    }
+
+    /**
+     * Replaces the state of the simulation with a checkpoint written by a
+     * simulation with the same elevators, queuers, banks, spawners and
+     * traffic generators, added in the same order. Every passenger and every
+     * scheduled event is dropped first.
+     *
+     * @param in Input
+     * @throws IOException On failure or if the checkpoint does not match the
+     *         simulation
+     */
+    public void readCheckpoint(DataInput in) throws IOException {
+        if (in.readInt() != CHECKPOINT_MAGIC) {
+            throw new IOException("Not a simulation checkpoint");
+        }
+
+        int version = in.readInt();
+
+        if (version != CHECKPOINT_VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+
+        long time = in.readLong(), nextSequence = in.readLong(), processedEvents = in.readLong();
+
+        events.clear();
+        pending.clear();
+
+        checkCount(in.readInt(), elevators.size(), "elevators");
+
+        for (Elevator elevator : elevators) {
+            String name = in.readUTF();
+
+            if (!name.equals(elevator.getElevatorName())) {
+                throw new IOException(String.format("Checkpoint has elevator %s where the simulation has %s",
+                        name, elevator.getElevatorName()));
+            }
+
+            readEvent(elevator, in, () -> stepElevator(elevator));
+            elevator.readState(in);
+        }
+
+        checkCount(in.readInt(), queuers.size(), "queuers");
+
+        for (ElevatorQueuer queuer : queuers) {
+            queuer.readState(in);
+        }
+
+        checkCount(in.readInt(), banks.size(), "banks");
+
+        for (ElevatorBank bank : banks) {
+            bank.readState(in);
+        }
+
+        checkCount(in.readInt(), spawnings.size(), "spawners");
+
+        for (Spawning spawning : spawnings) {
+            readEvent(spawning, in, () -> spawnGroup(spawning));
+            spawning.spawner.readState(in);
+        }
+
+        checkCount(in.readInt(), generators.size(), "traffic generators");
+
+        for (TrafficGenerator traffic : generators) {
+            readEvent(traffic, in, () -> arrive(traffic));
+            traffic.readState(in);
+        }
+
+        now = time;
+        sequence = nextSequence;
+        processed = processedEvents;
+    }
+
+    /**
+     * Takes a checkpoint of the simulation in memory
+     *
+     * @return Checkpoint
+     */
+    public SimulationCheckpoint checkpoint() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeCheckpoint(out);
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+
+        return new SimulationCheckpoint(bytes.toByteArray());
+    }
+
+    /**
+     * Restores a checkpoint taken by a simulation set up the same way, see
+     * readCheckpoint
+     *
+     * @param checkpoint Checkpoint
+     * @throws IOException If the checkpoint does not match the simulation
+     */
+    public void restore(SimulationCheckpoint checkpoint) throws IOException {
+        readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint.getData())));
+    }
+
+    /**
+     * Runs the events scheduled up to and including the given time
+     *
+     * @param time Time in milliseconds
+     */
+    public void runUntil(long time) {
+        Event event;
+
+        while ((event = events.peek()) != null && event.time <= time) {
+            events.poll();
+
+            // An event replaced by a later one of its component, such as
+            // the parking review of an idle elevator woken by a request,
+            // is skipped
+            if (event.owner != null) {
+                if (pending.get(event.owner) != event) {
+                    continue;
+                }
+
+                pending.remove(event.owner);
+            }
+
+            now = event.time;
+            event.task.run();
+            processed++;
+        }
+
+        now = Math.max(now, time);
+    }
+
+    /**
+     * Runs the simulation for the given duration
+     *
+     * @param duration Duration in milliseconds
+     */
+    public void runFor(long duration) {
+        runUntil(now + duration);
+    }
+
+    /**
+     * Gets the simulation's current time
+     *
+     * @return Time in milliseconds since the start of the simulation
+     */
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * Gets the amount of processed events
+     *
+     * @return Processed events
+     */
+    public long getProcessedEvents() {
+        return processed;
+    }
+
+    /**
+     * Gets the amount of pending events
+     *
+     * @return Pending events
+     */
+    public int getPendingEvents() {
+        return events.size();
+    }
+
+    /**
+     * Gets the simulation seed
+     *
+     * @return Seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Headless simulation
+     *
+     * @param seed Seed of the spawners
+     */
+    public Simulation(long seed) {
+        this.seed = seed;
+    }
+
+}
@@ -0,0 +1,84 @@
+package elevator.simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Immutable checkpoint of a simulation, held in memory
+ *
+ * Any number of simulations set up the same way can be restored from the
+ * same checkpoint, to branch what-if runs from a common state.
+ */
+public final class SimulationCheckpoint {
+
+    // Offset of the simulation time, after the magic and the version
+    private static final int TIME_OFFSET = 8;
+
+    private final byte[] data;
+
+    /**
+     * Reads a checkpoint from a file
+     *
+     * @param path File path
+     * @return Checkpoint
+     * @throws IOException On failure
+     */
+    public static SimulationCheckpoint read(Path path) throws IOException {
+        byte[] data = Files.readAllBytes(path);
+
+        if (data.length < TIME_OFFSET + 8) {
+            throw new IOException("Not a simulation checkpoint: " + path);
+        }
+
+        return new SimulationCheckpoint(data);
+    }
+
+    /**
+     * Writes the checkpoint to a file
+     *
+     * @param path File path
+     * @throws IOException On failure
+     */
+    public void write(Path path) throws IOException {
+        Files.write(path, data);
+    }
+
+    /**
+     * Gets the simulation time the checkpoint was taken at
+     *
+     * @return Time in milliseconds
+     */
+    public long getTime() {
+        return ByteBuffer.wrap(data).getLong(TIME_OFFSET);
+    }
+
+    /**
+     * Gets the size of the checkpoint
+     *
+     * @return Size in bytes
+     */
+    public int getSize() {
+        return data.length;
+    }
+
+    /**
+     * Gets the encoded checkpoint, which must not be modified
+     *
+     * @return Checkpoint data
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Simulation checkpoint
+     *
+     * @param data Checkpoint written by Simulation.writeCheckpoint
+     */
+    SimulationCheckpoint(byte[] data) {
+        this.data = data;
+    }
+
+}
@@ -0,0 +1,21 @@
+package elevator.simulation;
+
+/**
+ * Source of the current time of a simulation
+ */
+@FunctionalInterface
+public interface SimulationClock {
+
+    /**
+     * Wall clock time
+     */
+    public static final SimulationClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Gets the current time
+     *
+     * @return Current time in milliseconds
+     */
+    public long currentTimeMillis();
+
+}
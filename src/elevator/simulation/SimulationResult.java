@@ -0,0 +1,130 @@
+package elevator.simulation;
+
+import java.util.Locale;
+
+import elevator.metrics.LatencyHistogram;
+import elevator.metrics.TripMetrics;
+
+/**
+ * Service level outcome of a simulation run, used to compare configurations
+ * of the same building under the same traffic
+ */
+public final class SimulationResult {
+
+    private final String name;
+    private final long duration;
+    private final long arrivals;
+    private final LatencyHistogram waitTimes;
+    private final LatencyHistogram rideTimes;
+
+    /**
+     * Gets the header of the rows returned by toString
+     *
+     * @return Header
+     */
+    public static String header() {
+        return String.format(Locale.ROOT, "%-16s %9s %9s %8s %10s %9s %9s %9s",
+                "name", "arrivals", "trips", "waiting", "trips/h", "wait avg", "wait p99", "ride avg");
+    }
+
+    /**
+     * Gets the configuration name
+     *
+     * @return Name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the simulated duration
+     *
+     * @return Duration in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the amount of persons that arrived
+     *
+     * @return Arrival count
+     */
+    public long getArrivalCount() {
+        return arrivals;
+    }
+
+    /**
+     * Gets the amount of completed trips
+     *
+     * @return Trip count
+     */
+    public long getTripCount() {
+        return rideTimes.getCount();
+    }
+
+    /**
+     * Gets the amount of persons that had not boarded by the end of the run,
+     * their waits are not part of the wait times
+     *
+     * @return Waiting persons
+     */
+    public long getWaitingCount() {
+        return arrivals - waitTimes.getCount();
+    }
+
+    /**
+     * Gets the completed trips per simulated hour
+     *
+     * @return Throughput
+     */
+    public double getThroughput() {
+        return duration <= 0 ? 0 : getTripCount() * 3600000.0 / duration;
+    }
+
+    /**
+     * Gets the wait times of the persons that boarded
+     *
+     * @return Wait times
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Gets the ride times of the completed trips
+     *
+     * @return Ride times
+     */
+    public LatencyHistogram getRideTimes() {
+        return rideTimes;
+    }
+
+    /**
+     * Gets a row of the comparison table, times in seconds
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-16s %9d %9d %8d %10.1f %9.1f %9.1f %9.1f",
+                name, arrivals, getTripCount(), getWaitingCount(), getThroughput(),
+                waitTimes.getMean() / 1000, waitTimes.getPercentile(99) / 1000.0,
+                rideTimes.getMean() / 1000);
+    }
+
+    /**
+     * Simulation result
+     *
+     * @param name Configuration name
+     * @param duration Simulated duration in milliseconds
+     * @param arrivals Amount of persons that arrived
+     * @param metrics Trip metrics of the run
+     */
+    public SimulationResult(String name, long duration, long arrivals, TripMetrics metrics) {
+        this.name = name;
+        this.duration = duration;
+        this.arrivals = arrivals;
+        this.waitTimes = metrics.getWaitTimes();
+        this.rideTimes = metrics.getRideTimes();
+    }
+
+}
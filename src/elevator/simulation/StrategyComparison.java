@@ -0,0 +1,145 @@
+package elevator.simulation;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import elevator.elevator.ElevatorBank;
+import elevator.elevator.SchedulingStrategy;
+import elevator.metrics.TripMetrics;
+import elevator.traffic.TrafficGenerator;
+import elevator.traffic.TrafficProfile;
+
+/**
+ * Runs the same building under the same traffic once per scheduling
+ * strategy, or other configuration of the bank, and compares throughput and
+ * wait times
+ *
+ * Every run gets a fresh bank and a simulation with the same seed, so the
+ * persons arrive at the same times with the same trips in every run and only
+ * the configuration differs.
+ */
+public class StrategyComparison {
+
+    private final Supplier<ElevatorBank> banks;
+    private final TrafficProfile profile;
+    private final long seed;
+
+    private final Map<String, Consumer<ElevatorBank>> configurations = new LinkedHashMap<>();
+
+    /**
+     * Adds a strategy to compare
+     *
+     * @param name Name in the report
+     * @param strategy Scheduling strategy
+     * @return This comparison
+     */
+    public StrategyComparison add(String name, SchedulingStrategy strategy) {
+        return addConfiguration(name, bank -> bank.setSchedulingStrategy(strategy));
+    }
+
+    /**
+     * Adds a configuration to compare, applied to the bank before the run
+     *
+     * @param name Name in the report
+     * @param configuration Configures the bank
+     * @return This comparison
+     */
+    public StrategyComparison addConfiguration(String name, Consumer<ElevatorBank> configuration) {
+        configurations.put(name, configuration);
+
+        return this;
+    }
+
+    /**
+     * Adds the built-in strategies: SCAN, LOOK, shortest seek first and FIFO
+     *
+     * @return This comparison
+     */
+    public StrategyComparison addBuiltIns() {
+        return add("SCAN", SchedulingStrategy.SCAN)
+                .add("LOOK", SchedulingStrategy.LOOK)
+                .add("SSF", SchedulingStrategy.SHORTEST_SEEK)
+                .add("FIFO", SchedulingStrategy.FIFO);
+    }
+
+    /**
+     * Simulates the building with a single strategy
+     *
+     * @param name Name in the result
+     * @param strategy Scheduling strategy
+     * @param duration Simulated duration in milliseconds
+     * @return Result
+     */
+    public SimulationResult run(String name, SchedulingStrategy strategy, long duration) {
+        return runConfiguration(name, bank -> bank.setSchedulingStrategy(strategy), duration);
+    }
+
+    /**
+     * Simulates the building with a single configuration
+     *
+     * @param name Name in the result
+     * @param configuration Configures the bank
+     * @param duration Simulated duration in milliseconds
+     * @return Result
+     */
+    public SimulationResult runConfiguration(String name, Consumer<ElevatorBank> configuration, long duration) {
+        Simulation sim = new Simulation(seed);
+        ElevatorBank bank = banks.get();
+        TripMetrics metrics = new TripMetrics();
+        TrafficGenerator traffic = new TrafficGenerator(profile, bank, seed);
+
+        configuration.accept(bank);
+        sim.attach(bank);
+        metrics.attach(bank);
+        sim.addTraffic(traffic);
+        sim.runFor(duration);
+
+        return new SimulationResult(name, duration, traffic.getArrivalCount(), metrics);
+    }
+
+    /**
+     * Simulates the building once with every added strategy and
+     * configuration
+     *
+     * @param duration Simulated duration in milliseconds
+     * @return Results in the order they were added
+     */
+    public List<SimulationResult> run(long duration) {
+        List<SimulationResult> results = new ArrayList<>();
+
+        configurations.forEach((name, configuration) ->
+                results.add(runConfiguration(name, configuration, duration)));
+
+        return results;
+    }
+
+    /**
+     * Prints a comparison table of results
+     *
+     * @param results Results
+     * @param out Output stream
+     */
+    public static void print(List<SimulationResult> results, PrintStream out) {
+        out.println(SimulationResult.header());
+        results.forEach(out::println);
+    }
+
+    /**
+     * Strategy comparison
+     *
+     * @param banks Creates a new, identically configured bank for every run
+     * @param profile Traffic profile
+     * @param seed Seed of the traffic
+     */
+    public StrategyComparison(Supplier<ElevatorBank> banks, TrafficProfile profile, long seed) {
+        this.banks = banks;
+        this.profile = profile;
+        this.seed = seed;
+    }
+
+}
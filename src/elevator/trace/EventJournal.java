@@ -0,0 +1,530 @@
+package elevator.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorAction;
+import elevator.elevator.ElevatorBank;
+import elevator.elevator.ElevatorStop;
+import elevator.elevator.ExecutionMode;
+import elevator.elevator.Person;
+
+/**
+ * Audit log of the START, STOP, BOARD and EJECT events of elevators
+ *
+ * The listeners only copy the event into a lock-free buffer of the elevator
+ * and return, an event arriving while the buffer is full is dropped and
+ * counted. A single background writer drains the buffers in batches into a
+ * large direct buffer and writes it to the current file through a file
+ * channel, rolling over to a new file once the file reaches its maximum
+ * size. Files are named after the base name and a six digit file number.
+ *
+ * The journal listens on the elevators' dispatchers even when they have an
+ * event ring, as the ring carries no START and BOARD events and one source
+ * keeps the records of an elevator in order. Its STOP and EJECT listeners
+ * make the elevator dispatch those events besides publishing them, which
+ * allocates.
+ */
+public class EventJournal implements Closeable {
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+    // Records drained from one elevator before moving on to the next, and
+    // from all elevators before the output is written
+    private static final int ELEVATOR_BATCH = 256;
+    private static final int WRITE_BATCH = 16384;
+
+    // Longest CSV line besides the elevator name
+    private static final int CSV_RECORD_MAX = 128;
+
+    private static final long IDLE_NANOS = 1000000;
+
+    private static final ElevatorAction[] ACTIONS = ElevatorAction.values();
+
+    private final Path directory;
+    private final String baseName;
+    private final JournalEncoding encoding;
+
+    private final List<Elevator> elevators = new ArrayList<>();
+    private final List<JournalBuffer> buffers = new ArrayList<>();
+    private final List<byte[]> names = new ArrayList<>();
+    private final List<Consumer<Object>> listeners = new ArrayList<>();
+
+    private int bufferCapacity = 8192;
+    private volatile long maxFileSize = 64L << 20;
+    private volatile JournalSync sync = JournalSync.ON_ROLL;
+    private volatile long syncInterval = 1000;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+    private volatile IOException failure;
+    private volatile long written;
+    private volatile int files;
+
+    // Only used by the writer
+    private final ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    private final long[] record = new long[JournalBuffer.RECORD_LONGS];
+    private final byte[] digits = new byte[20];
+    private FileChannel channel;
+    private long fileSize;
+    private long lastSync;
+
+    /**
+     * Copies an event into the buffer of its elevator
+     *
+     * BOARD and EJECT are recorded with the person's board or eject time and
+     * floor, so a listener running late on a queued dispatcher records the
+     * event as it happened. START and STOP carry only the floor and are
+     * stamped with the clock when the listener runs.
+     *
+     * @param elevator Elevator
+     * @param buffer Buffer of the elevator
+     * @param action Action
+     * @param data Floor, stop or person of the event
+     */
+    private void record(Elevator elevator, JournalBuffer buffer, ElevatorAction action, Object data) {
+        if (data instanceof Person) {
+            Person person = (Person) data;
+            boolean board = action == ElevatorAction.BOARD;
+            long time = board ? person.getBoardTime() : person.getEjectTime();
+            int floor = board ? person.getOriginFloor() : person.getTargetFloor();
+
+            buffer.offer(time, (long) floor << 32 | action.ordinal(),
+                    (long) person.getOriginFloor() << 32 | person.getTargetFloor() & 0xFFFFFFFFL,
+                    (long) person.getWeight() << 32);
+        } else {
+            int floor = data instanceof ElevatorStop ? ((ElevatorStop) data).getFloor()
+                    : data instanceof Integer ? (Integer) data : elevator.getFloor();
+
+            buffer.offer(elevator.getClock().currentTimeMillis(), (long) floor << 32 | action.ordinal(),
+                    0, 0);
+        }
+    }
+
+    /**
+     * Puts a number in decimal
+     *
+     * @param value Value
+     */
+    private void putDecimal(long value) {
+        int i = digits.length;
+
+        if (value < 0) {
+            output.put((byte) '-');
+        }
+
+        do {
+            digits[--i] = (byte) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+
+        output.put(digits, i, digits.length - i);
+    }
+
+    /**
+     * Encodes the current record into the output
+     *
+     * @param elevator Elevator index
+     * @throws IOException On failure
+     */
+    private void encode(int elevator) throws IOException {
+        long time = record[0];
+        int action = (int) record[1] & 0xFF,
+                floor = (int) (record[1] >> 32),
+                origin = (int) (record[2] >> 32),
+                target = (int) record[2],
+                weight = (int) (record[3] >> 32);
+
+        if (encoding == JournalEncoding.BINARY) {
+            if (output.remaining() < JournalFormat.RECORD_SIZE) {
+                writeOutput();
+            }
+
+            output.putLong(time)
+                    .putShort((short) elevator)
+                    .put((byte) action)
+                    .put((byte) 0)
+                    .putInt(floor)
+                    .putInt(origin)
+                    .putInt(target)
+                    .putInt(weight)
+                    .putInt(0);
+            return;
+        }
+
+        byte[] name = names.get(elevator);
+
+        if (output.remaining() < CSV_RECORD_MAX + name.length) {
+            writeOutput();
+        }
+
+        putDecimal(time);
+        output.put((byte) ',').put(name).put((byte) ',');
+        output.put(ACTIONS[action].name().getBytes(StandardCharsets.US_ASCII)).put((byte) ',');
+        putDecimal(floor);
+        output.put((byte) ',');
+        putDecimal(origin);
+        output.put((byte) ',');
+        putDecimal(target);
+        output.put((byte) ',');
+        putDecimal(weight);
+        output.put((byte) '\n');
+    }
+
+    /**
+     * Drains the buffers of every elevator into the output, taking turns
+     *
+     * @return Amount of drained records
+     * @throws IOException On failure
+     */
+    private int drain() throws IOException {
+        int total = 0, drained;
+
+        do {
+            drained = 0;
+
+            for (int i = 0; i < buffers.size(); i++) {
+                JournalBuffer buffer = buffers.get(i);
+
+                for (int n = 0; n < ELEVATOR_BATCH && buffer.poll(record); n++) {
+                    encode(i);
+                    drained++;
+                }
+            }
+
+            total += drained;
+        } while (drained > 0 && total < WRITE_BATCH);
+
+        written += total;
+
+        return total;
+    }
+
+    /**
+     * Opens the next file and puts its header into the output
+     *
+     * @throws IOException On failure
+     */
+    private void openFile() throws IOException {
+        Path path = directory.resolve(String.format("%s-%06d%s", baseName, files + 1, encoding.getExtension()));
+
+        channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        fileSize = 0;
+        files++;
+
+        if (encoding == JournalEncoding.BINARY) {
+            int header = output.position();
+
+            // Put at the header's offsets, the names follow the fixed part
+            output.putInt(header + JournalFormat.HEADER_MAGIC, JournalFormat.MAGIC)
+                    .putShort(header + JournalFormat.HEADER_VERSION, JournalFormat.VERSION)
+                    .putShort(header + JournalFormat.HEADER_RECORD_SIZE, (short) JournalFormat.RECORD_SIZE)
+                    .putInt(header + JournalFormat.HEADER_ELEVATORS, names.size())
+                    .position(header + JournalFormat.HEADER_NAMES);
+
+            for (byte[] name : names) {
+                output.putShort((short) name.length).put(name);
+            }
+        } else {
+            output.put(JournalFormat.CSV_HEADER.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Writes the output to the current file, rolling over to the next file
+     * once the current one is full
+     *
+     * @throws IOException On failure
+     */
+    private void writeOutput() throws IOException {
+        output.flip();
+        fileSize += output.remaining();
+
+        while (output.hasRemaining()) {
+            channel.write(output);
+        }
+
+        output.clear();
+
+        if (fileSize >= maxFileSize) {
+            closeFile();
+            openFile();
+        }
+    }
+
+    /**
+     * Forces the current file to the storage device if the sync policy asks
+     * for it after a batch
+     *
+     * @throws IOException On failure
+     */
+    private void syncBatch() throws IOException {
+        JournalSync sync = this.sync;
+        long now = System.nanoTime();
+
+        if (sync == JournalSync.EVERY_BATCH
+                || (sync == JournalSync.INTERVAL && now - lastSync >= syncInterval * 1000000)) {
+            channel.force(false);
+            lastSync = now;
+        }
+    }
+
+    /**
+     * Closes the current file, forcing it to the storage device unless the
+     * sync policy is NEVER
+     *
+     * @throws IOException On failure
+     */
+    private void closeFile() throws IOException {
+        try {
+            if (sync != JournalSync.NEVER) {
+                channel.force(true);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Drains the buffers until the journal is closed and the buffers are
+     * empty
+     */
+    private void write() {
+        try {
+            openFile();
+            lastSync = System.nanoTime();
+
+            while (true) {
+                // Checked before draining, so that the last drain sees every
+                // record offered before closing
+                boolean stopping = !running;
+                int drained = drain();
+
+                if (output.position() > 0) {
+                    writeOutput();
+                    syncBatch();
+                }
+
+                if (drained == 0) {
+                    if (stopping) {
+                        break;
+                    }
+
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                }
+            }
+
+            closeFile();
+        } catch (IOException e) {
+            failure = e;
+
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+        }
+    }
+
+    /**
+     * Journals the events of an elevator, elevators are attached before the
+     * journal is started
+     *
+     * @param elevator Elevator
+     */
+    public synchronized void attach(Elevator elevator) {
+        if (writer != null) {
+            throw new IllegalStateException("Elevators must be attached before the journal is started");
+        }
+
+        if (elevators.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many elevators");
+        }
+
+        JournalBuffer buffer = new JournalBuffer(bufferCapacity);
+
+        elevators.add(elevator);
+        buffers.add(buffer);
+        names.add(elevator.getElevatorName().getBytes(StandardCharsets.UTF_8));
+
+        for (ElevatorAction action : ACTIONS) {
+            Consumer<Object> listener = data -> record(elevator, buffer, action, data);
+
+            elevator.addListener(action, listener);
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Journals the events of every elevator of a bank
+     *
+     * @param bank Elevator bank
+     */
+    public void attach(ElevatorBank bank) {
+        bank.getCars().forEach(this::attach);
+    }
+
+    /**
+     * Starts the background writer and opens the first file
+     *
+     * @param mode Execution mode of the writer thread
+     */
+    public synchronized void start(ExecutionMode mode) {
+        if (writer != null) {
+            throw new IllegalStateException("Journal already started");
+        }
+
+        running = true;
+        writer = mode.newThread(this::write, "EventJournal" + baseName);
+        writer.start();
+    }
+
+    /**
+     * Gets the amount of events dropped because a buffer was full
+     *
+     * @return Dropped events
+     */
+    public synchronized long getDroppedCount() {
+        long dropped = 0;
+
+        for (JournalBuffer buffer : buffers) {
+            dropped += buffer.getDroppedCount();
+        }
+
+        return dropped;
+    }
+
+    /**
+     * Gets the amount of events of an elevator dropped because its buffer
+     * was full
+     *
+     * @param elevator Elevator
+     * @return Dropped events, 0 if the elevator is not attached
+     */
+    public synchronized long getDroppedCount(Elevator elevator) {
+        int index = elevators.indexOf(elevator);
+
+        return index < 0 ? 0 : buffers.get(index).getDroppedCount();
+    }
+
+    /**
+     * Gets the amount of events handed to the files
+     *
+     * @return Written events
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Gets the amount of files opened so far
+     *
+     * @return File count
+     */
+    public int getFileCount() {
+        return files;
+    }
+
+    /**
+     * Gets the error that stopped the writer
+     *
+     * @return Error, null if none
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Sets the capacity of the buffers of the elevators attached afterwards
+     *
+     * @param capacity Capacity in events, rounded up to a power of two
+     */
+    public synchronized void setBufferCapacity(int capacity) {
+        this.bufferCapacity = capacity;
+    }
+
+    /**
+     * Sets the size at which the journal rolls over to a new file
+     *
+     * @param size Maximum file size in bytes
+     */
+    public void setMaxFileSize(long size) {
+        this.maxFileSize = size;
+    }
+
+    /**
+     * Sets when the files are forced to the storage device
+     *
+     * @param sync Sync policy
+     * @param interval Sync interval in milliseconds, used by INTERVAL
+     */
+    public void setSync(JournalSync sync, long interval) {
+        this.sync = sync;
+        this.syncInterval = interval;
+    }
+
+    /**
+     * Stops journaling, writes the remaining events and closes the current
+     * file
+     *
+     * @throws IOException If the writer failed
+     */
+    @Override
+    public void close() throws IOException {
+        Thread writer;
+
+        synchronized (this) {
+            for (int i = 0; i < listeners.size(); i++) {
+                elevators.get(i / ACTIONS.length).removeListener(ACTIONS[i % ACTIONS.length], listeners.get(i));
+            }
+
+            listeners.clear();
+            writer = this.writer;
+            running = false;
+        }
+
+        if (writer != null) {
+            LockSupport.unpark(writer);
+
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while closing the journal", e);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Event journal
+     *
+     * @param directory Directory of the files, existing files are replaced
+     * @param baseName Base name of the files
+     * @param encoding Encoding of the files
+     */
+    public EventJournal(Path directory, String baseName, JournalEncoding encoding) {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.encoding = encoding;
+    }
+
+}
@@ -0,0 +1,129 @@
+package elevator.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of journal records, for any number of producers
+ * and a single consumer
+ *
+ * Every slot holds a record of four longs and a sequence number telling
+ * whose turn it is: a producer claims the slot of the tail with a single
+ * compare-and-set, writes the record and publishes it by advancing the
+ * sequence. A record offered while the queue is full is dropped and counted,
+ * producers never wait for the consumer.
+ */
+final class JournalBuffer {
+
+    static final int RECORD_LONGS = 4;
+
+    private final long[] records;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Only read and written by the consumer
+    private long head;
+
+    /**
+     * Offers a record
+     *
+     * @param w0 First word
+     * @param w1 Second word
+     * @param w2 Third word
+     * @param w3 Fourth word
+     * @return True if the record was queued, false if it was dropped
+     */
+    public boolean offer(long w0, long w1, long w2, long w3) {
+        long pos, seq;
+        int index;
+
+        while (true) {
+            pos = tail.get();
+            index = (int) pos & mask;
+            seq = sequences.get(index);
+
+            if (seq == pos) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (seq < pos) {
+                // The slot still holds a record of the previous lap
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+
+        int base = index * RECORD_LONGS;
+
+        records[base] = w0;
+        records[base + 1] = w1;
+        records[base + 2] = w2;
+        records[base + 3] = w3;
+
+        // Publishes the record to the consumer
+        sequences.lazySet(index, pos + 1);
+
+        return true;
+    }
+
+    /**
+     * Takes the oldest record, only called by the consumer
+     *
+     * @param record Array the four words are copied to
+     * @return True if a record was taken, false if the queue is empty
+     */
+    public boolean poll(long[] record) {
+        int index = (int) head & mask;
+
+        if (sequences.get(index) != head + 1) {
+            return false;
+        }
+
+        System.arraycopy(records, index * RECORD_LONGS, record, 0, RECORD_LONGS);
+
+        // Hands the slot to the producers of the next lap
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+
+        return true;
+    }
+
+    /**
+     * Checks if there are no published records, only called by the consumer
+     *
+     * @return True if empty
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    /**
+     * Gets the amount of dropped records
+     *
+     * @return Dropped records
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Journal buffer
+     *
+     * @param capacity Capacity in records, rounded up to a power of two
+     */
+    public JournalBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        this.mask = size - 1;
+        this.records = new long[size * RECORD_LONGS];
+        this.sequences = new AtomicLongArray(size);
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package elevator.trace;
+
+/**
+ * Encoding of the files written by an event journal
+ */
+public enum JournalEncoding {
+
+    /**
+     * Fixed size binary records, see JournalFormat
+     */
+    BINARY(".journal"),
+
+    /**
+     * One line of comma separated values per event, with a header line
+     */
+    CSV(".csv");
+
+    private final String extension;
+
+    /**
+     * Gets the file name extension
+     *
+     * @return Extension, including the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    private JournalEncoding(String extension) {
+        this.extension = extension;
+    }
+
+}
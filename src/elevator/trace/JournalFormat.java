@@ -0,0 +1,43 @@
+package elevator.trace;
+
+/**
+ * Layout of a binary event journal file
+ *
+ * A file starts with a header holding the magic number, the format version,
+ * the record size, the amount of elevators and the name of every elevator
+ * (a 2 byte length followed by the UTF-8 bytes). The header is followed by
+ * fixed size records, all big endian. Every record is one event:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     8  clock time in milliseconds
+ *      8     2  elevator index in the header
+ *     10     1  action (ElevatorAction ordinal)
+ *     11     1  reserved
+ *     12     4  floor of the elevator
+ *     16     4  origin floor of the person, 0 for START and STOP
+ *     20     4  target floor of the person, 0 for START and STOP
+ *     24     4  weight of the person, 0 for START and STOP
+ *     28     4  reserved
+ * </pre>
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x454C564A; // "ELVJ"
+    static final short VERSION = 1;
+
+    static final int RECORD_SIZE = 32;
+
+    // Header offsets
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_SIZE = 6;
+    static final int HEADER_ELEVATORS = 8;
+    static final int HEADER_NAMES = 12;
+
+    static final String CSV_HEADER = "time,elevator,action,floor,origin,target,weight\n";
+
+    private JournalFormat() {
+    }
+
+}
@@ -0,0 +1,28 @@
+package elevator.trace;
+
+/**
+ * When an event journal forces its writes to the storage device
+ */
+public enum JournalSync {
+
+    /**
+     * Never, the operating system writes the files back when it sees fit
+     */
+    NEVER,
+
+    /**
+     * When a file is completed, by rolling over or closing the journal
+     */
+    ON_ROLL,
+
+    /**
+     * At most once per sync interval, and when a file is completed
+     */
+    INTERVAL,
+
+    /**
+     * After every batch of events written, and when a file is completed
+     */
+    EVERY_BATCH
+
+}
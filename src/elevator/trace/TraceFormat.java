@@ -0,0 +1,44 @@
+package elevator.trace;
+
+/**
+ * Layout of a binary arrival trace
+ *
+ * A trace is a 16 byte header followed by fixed size records, all big endian.
+ * The header holds the magic number, the format version, the record size and
+ * the clock time the trace was started at. Every record is one arrival:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     8  time in milliseconds since the start of the trace
+ *      8     2  origin floor
+ *     10     2  target floor
+ *     12     4  weight
+ * </pre>
+ *
+ * The fixed record size lets a reader address any record directly, without
+ * parsing the records before it.
+ */
+final class TraceFormat {
+
+    static final int MAGIC = 0x454C5654; // "ELVT"
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 16;
+
+    // Header offsets
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_SIZE = 6;
+    static final int HEADER_START_TIME = 8;
+
+    // Record offsets
+    static final int RECORD_TIME = 0;
+    static final int RECORD_ORIGIN = 8;
+    static final int RECORD_TARGET = 10;
+    static final int RECORD_WEIGHT = 12;
+
+    private TraceFormat() {
+    }
+
+}
@@ -0,0 +1,187 @@
+package elevator.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import elevator.elevator.ElevatorBank;
+import elevator.elevator.ElevatorQueuer;
+import elevator.elevator.Person;
+import elevator.simulation.SimulationClock;
+
+/**
+ * Records the arrivals queued at elevators to a binary trace file
+ *
+ * Records are collected in a buffer and written to the file whenever the
+ * buffer is full, so recording does not touch the file for every arrival.
+ */
+public class TraceRecorder implements Closeable {
+
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * TraceFormat.RECORD_SIZE);
+    private final long startTime;
+    private final Consumer<Person> listener = this::record;
+
+    private long records;
+    private boolean closed;
+
+    /**
+     * Writes the buffered records to the file
+     *
+     * @throws IOException On failure
+     */
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Records an arrival
+     *
+     * @param time Clock time of the arrival in milliseconds
+     * @param origin Origin floor
+     * @param target Target floor
+     * @param weight Weight
+     * @throws IOException On failure
+     */
+    public synchronized void record(long time, int origin, int target, int weight) throws IOException {
+        if (closed) {
+            throw new IOException("Trace recorder is closed");
+        }
+
+        if (origin != (short) origin || target != (short) target) {
+            throw new IllegalArgumentException(String.format("Floor outside of the trace range (%d, %d)",
+                    Short.MIN_VALUE, Short.MAX_VALUE));
+        }
+
+        if (!buffer.hasRemaining()) {
+            flushBuffer();
+        }
+
+        buffer.putLong(time - startTime)
+                .putShort((short) origin)
+                .putShort((short) target)
+                .putInt(weight);
+        records++;
+    }
+
+    /**
+     * Records a queued person
+     *
+     * @param person Person
+     */
+    public void record(Person person) {
+        try {
+            record(person.getQueueTime(), person.getFloor(), person.getTargetFloor(), person.getWeight());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not record arrival", e);
+        }
+    }
+
+    /**
+     * Records every person queued at the queuer
+     *
+     * @param eq Elevator queuer
+     */
+    public void attach(ElevatorQueuer eq) {
+        eq.addQueueListener(listener);
+    }
+
+    /**
+     * Records every person queued at the bank
+     *
+     * @param bank Elevator bank
+     */
+    public void attach(ElevatorBank bank) {
+        for (int i = 0; i < bank.getCarCount(); i++) {
+            attach(bank.getQueuer(i));
+        }
+    }
+
+    /**
+     * Stops recording the persons queued at the queuer
+     *
+     * @param eq Elevator queuer
+     */
+    public void detach(ElevatorQueuer eq) {
+        eq.removeQueueListener(listener);
+    }
+
+    /**
+     * Writes the buffered records to the file
+     *
+     * @throws IOException On failure
+     */
+    public synchronized void flush() throws IOException {
+        if (!closed) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Gets the amount of recorded arrivals
+     *
+     * @return Record count
+     */
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Writes the remaining records and closes the file
+     *
+     * @throws IOException On failure
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        try {
+            flushBuffer();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Trace recorder, an existing file is replaced
+     *
+     * @param path Trace file
+     * @param clock Clock the arrivals are timestamped with, the trace starts
+     *        at its current time
+     * @throws IOException On failure
+     */
+    public TraceRecorder(Path path, SimulationClock clock) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.startTime = clock.currentTimeMillis();
+
+        ByteBuffer header = ByteBuffer.allocate(TraceFormat.HEADER_SIZE);
+        header.putInt(TraceFormat.MAGIC)
+                .putShort(TraceFormat.VERSION)
+                .putShort((short) TraceFormat.RECORD_SIZE)
+                .putLong(startTime)
+                .flip();
+
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+package elevator.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+import elevator.elevator.HallCallQueue;
+import elevator.elevator.Person;
+import elevator.simulation.Simulation;
+
+/**
+ * Replays a binary arrival trace
+ *
+ * The trace file is memory mapped in segments, records are read in place at
+ * their offset rather than parsed into objects, so traces larger than the
+ * heap replay at the cost of the page cache only.
+ */
+public class TraceReplay implements Closeable {
+
+    // Segment size, a multiple of the record size below the 2 GB map limit
+    private static final long SEGMENT_RECORDS = (1L << 30) / TraceFormat.RECORD_SIZE;
+    private static final long SEGMENT_SIZE = SEGMENT_RECORDS * TraceFormat.RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long startTime;
+    private final long records;
+
+    /**
+     * Gets the segment holding a record
+     *
+     * @param record Record index
+     * @return Segment
+     */
+    private ByteBuffer segment(long record) {
+        if (record < 0 || record >= records) {
+            throw new IndexOutOfBoundsException(String.format("Record %d of %d", record, records));
+        }
+
+        return segments[(int) (record / SEGMENT_RECORDS)];
+    }
+
+    /**
+     * Gets the offset of a record within its segment
+     *
+     * @param record Record index
+     * @return Offset
+     */
+    private static int offset(long record) {
+        return (int) (record % SEGMENT_RECORDS) * TraceFormat.RECORD_SIZE;
+    }
+
+    /**
+     * Creates the person of a record
+     *
+     * @param record Record index
+     * @return Person
+     */
+    private Person person(long record) {
+        return new Person(getWeight(record), getOrigin(record), getTarget(record));
+    }
+
+    /**
+     * Schedules the arrival of a record, together with the records arriving
+     * at the same time, which schedules the next record once they arrived
+     *
+     * @param sim Simulation
+     * @param hall Hall call queue
+     * @param record Record index
+     * @param end Record index to stop at
+     */
+    private void scheduleRecord(Simulation sim, HallCallQueue hall, long record, long end) {
+        long time = getTime(record),
+                delay = time - (record == 0 ? 0 : getTime(record - 1));
+
+        sim.schedule(Math.max(0, delay), () -> {
+            long next = record;
+
+            // Arrivals of the same time are queued in one event, as they were
+            // recorded
+            do {
+                hall.queue(person(next++));
+            } while (next < end && getTime(next) == time);
+
+            if (next < end) {
+                scheduleRecord(sim, hall, next, end);
+            }
+        });
+    }
+
+    /**
+     * Gets the time of an arrival
+     *
+     * @param record Record index
+     * @return Milliseconds since the start of the trace
+     */
+    public long getTime(long record) {
+        return segment(record).getLong(offset(record) + TraceFormat.RECORD_TIME);
+    }
+
+    /**
+     * Gets the origin floor of an arrival
+     *
+     * @param record Record index
+     * @return Origin floor
+     */
+    public int getOrigin(long record) {
+        return segment(record).getShort(offset(record) + TraceFormat.RECORD_ORIGIN);
+    }
+
+    /**
+     * Gets the target floor of an arrival
+     *
+     * @param record Record index
+     * @return Target floor
+     */
+    public int getTarget(long record) {
+        return segment(record).getShort(offset(record) + TraceFormat.RECORD_TARGET);
+    }
+
+    /**
+     * Gets the weight of an arrival
+     *
+     * @param record Record index
+     * @return Weight
+     */
+    public int getWeight(long record) {
+        return segment(record).getInt(offset(record) + TraceFormat.RECORD_WEIGHT);
+    }
+
+    /**
+     * Queues every arrival of the trace on the calling thread
+     *
+     * @param hall Hall call queue
+     * @param paced True to queue the arrivals at their recorded pace, false
+     *        to queue them as fast as possible
+     */
+    public void replay(HallCallQueue hall, boolean paced) {
+        long start = System.nanoTime(), due;
+
+        for (long i = 0; i < records; i++) {
+            if (paced) {
+                due = start + getTime(i) * 1000000;
+
+                // Parks until the arrival is due, an absolute deadline keeps
+                // the replay from drifting
+                while (System.nanoTime() - due < 0) {
+                    LockSupport.parkNanos(due - System.nanoTime());
+
+                    if (Thread.interrupted()) {
+                        return;
+                    }
+                }
+            }
+
+            hall.queue(person(i));
+        }
+    }
+
+    /**
+     * Schedules every arrival of the trace in a simulation, relative to the
+     * simulation's current time
+     *
+     * Only the next arrival is scheduled at any time, so the simulation's
+     * event queue does not grow with the size of the trace.
+     *
+     * @param sim Simulation
+     * @param hall Hall call queue
+     */
+    public void schedule(Simulation sim, HallCallQueue hall) {
+        if (records > 0) {
+            scheduleRecord(sim, hall, 0, records);
+        }
+    }
+
+    /**
+     * Gets the clock time the trace was started at
+     *
+     * @return Start time in milliseconds
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets the amount of arrivals in the trace
+     *
+     * @return Record count
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Gets the time of the last arrival
+     *
+     * @return Milliseconds since the start of the trace, 0 if empty
+     */
+    public long getDuration() {
+        return records == 0 ? 0 : getTime(records - 1);
+    }
+
+    /**
+     * Closes the trace file, the mapped segments are released once they are
+     * no longer referenced
+     *
+     * @throws IOException On failure
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Trace replay
+     *
+     * @param path Trace file
+     * @throws IOException If the file could not be read or is not a trace
+     */
+    public TraceReplay(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            long size = channel.size();
+
+            if (size < TraceFormat.HEADER_SIZE) {
+                throw new IOException("Not an elevator trace: " + path);
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TraceFormat.HEADER_SIZE);
+
+            if (header.getInt(TraceFormat.HEADER_MAGIC) != TraceFormat.MAGIC) {
+                throw new IOException("Not an elevator trace: " + path);
+            }
+
+            if (header.getShort(TraceFormat.HEADER_VERSION) != TraceFormat.VERSION
+                    || header.getShort(TraceFormat.HEADER_RECORD_SIZE) != TraceFormat.RECORD_SIZE) {
+                throw new IOException("Unsupported trace version: " + path);
+            }
+
+            this.startTime = header.getLong(TraceFormat.HEADER_START_TIME);
+
+            // A partially written last record is ignored
+            this.records = (size - TraceFormat.HEADER_SIZE) / TraceFormat.RECORD_SIZE;
+            this.segments = new MappedByteBuffer[(int) ((records + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+
+            for (int i = 0; i < segments.length; i++) {
+                long position = TraceFormat.HEADER_SIZE + i * SEGMENT_SIZE,
+                        length = Math.min(SEGMENT_SIZE, records * TraceFormat.RECORD_SIZE - i * SEGMENT_SIZE);
+
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+}
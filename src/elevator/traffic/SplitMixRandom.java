@@ -0,0 +1,117 @@
+package elevator.traffic;
+
+/**
+ * Small, fast pseudo random generator (SplitMix64)
+ *
+ * The whole state is a single long that can be read and restored, so a
+ * generator can be resumed exactly where it left off. Not thread safe.
+ */
+public class SplitMixRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    /**
+     * Gets the next 64 random bits
+     *
+     * @return Random long
+     */
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets a uniformly distributed double
+     *
+     * @return Random double in [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Gets a uniformly distributed int
+     *
+     * @param bound Upper bound, exclusive
+     * @return Random int in [0, bound)
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive");
+        }
+
+        // Rejects the top of the range that would bias the modulo
+        long bits, value;
+
+        do {
+            bits = nextLong() >>> 33;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) >= 1L << 31);
+
+        return (int) value;
+    }
+
+    /**
+     * Gets a normally distributed double (Box-Muller)
+     *
+     * @return Random double with mean 0 and standard deviation 1
+     */
+    public double nextGaussian() {
+        double u = 1.0 - nextDouble(), v = nextDouble();
+
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    /**
+     * Gets an exponentially distributed double
+     *
+     * @param mean Mean
+     * @return Random double
+     */
+    public double nextExponential(double mean) {
+        return -mean * Math.log(1.0 - nextDouble());
+    }
+
+    /**
+     * Gets the generator's state
+     *
+     * @return State
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a state returned by getState
+     *
+     * @param state State
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Seeds the generator, the same seed gives the same sequence
+     *
+     * @param seed Seed
+     */
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Random generator
+     *
+     * @param seed Seed
+     */
+    public SplitMixRandom(long seed) {
+        setSeed(seed);
+    }
+
+}
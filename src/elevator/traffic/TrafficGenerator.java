@@ -0,0 +1,253 @@
+package elevator.traffic;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+import elevator.elevator.ExecutionMode;
+import elevator.elevator.HallCallQueue;
+import elevator.elevator.Person;
+
+/**
+ * Generates the arrivals of a traffic profile at a hall call queue
+ *
+ * Arrivals follow a Poisson process with the profile's time varying rate,
+ * drawn by thinning a process of the peak rate. The same profile and seed
+ * always produce the same arrivals. Not thread safe, a generator is driven
+ * either by a simulation or by its own thread.
+ */
+public class TrafficGenerator {
+
+    private final TrafficProfile profile;
+    private final HallCallQueue hall;
+    private final SplitMixRandom rand;
+
+    private volatile boolean running;
+
+    // Profile time of the latest arrival in milliseconds
+    private double time;
+    private long arrivals;
+
+    /**
+     * Gets a random floor other than the lobby
+     *
+     * @param bottomFloor Bottom floor
+     * @param floors Floor count
+     * @param lobby Lobby floor
+     * @return Floor
+     */
+    private int upperFloor(int bottomFloor, int floors, int lobby) {
+        int floor = bottomFloor + rand.nextInt(floors - 1);
+
+        return floor >= lobby ? floor + 1 : floor;
+    }
+
+    /**
+     * Draws the weight of a person
+     *
+     * @return Weight
+     */
+    private int nextWeight() {
+        double weight = profile.getWeightMean() + profile.getWeightDeviation() * rand.nextGaussian();
+
+        return (int) Math.max(profile.getWeightMin(), Math.min(profile.getWeightMax(), Math.round(weight)));
+    }
+
+    /**
+     * Advances to the next arrival
+     *
+     * @return Milliseconds from the previous arrival to the next, -1 if a non
+     *         repeating profile has ended
+     */
+    public long nextInterval() {
+        double peak = profile.getPeakRate(), t = time;
+
+        if (peak <= 0) {
+            return -1;
+        }
+
+        // Candidates at the peak rate, kept with the ratio of the current
+        // rate to the peak rate
+        do {
+            t += rand.nextExponential(60000 / peak);
+
+            if (!profile.isRepeating() && t >= profile.getDuration()) {
+                return -1;
+            }
+        } while (rand.nextDouble() * peak >= profile.getRate(t));
+
+        long interval = Math.round(t) - Math.round(time);
+        time = t;
+
+        return interval;
+    }
+
+    /**
+     * Creates the person arriving at the current profile time and queues it
+     *
+     * @return Person, null if the building has a single floor
+     */
+    public Person spawn() {
+        int bottomFloor = hall.getBottomFloor(),
+                floors = hall.getTopFloor() - bottomFloor + 1,
+                lobby = profile.getLobby() == Integer.MIN_VALUE ? bottomFloor : profile.getLobby(),
+                origin,
+                target;
+        TrafficPhase phase = profile.getPhase(time);
+
+        if (floors < 2 || phase == null) {
+            return null;
+        }
+
+        lobby = Math.max(bottomFloor, Math.min(bottomFloor + floors - 1, lobby));
+
+        if (profile.getLobby() == TrafficProfile.NO_LOBBY) {
+            origin = bottomFloor + rand.nextInt(floors);
+
+            while ((target = bottomFloor + rand.nextInt(floors)) == origin);
+        } else {
+            double trip = rand.nextDouble();
+
+            // Interfloor trips need two floors besides the lobby
+            if (trip >= phase.getUp() + phase.getDown() && floors > 2) {
+                origin = upperFloor(bottomFloor, floors, lobby);
+
+                while ((target = upperFloor(bottomFloor, floors, lobby)) == origin);
+            } else if (trip < phase.getUp()
+                    || (trip >= phase.getUp() + phase.getDown() && rand.nextInt(2) == 0)) {
+                origin = lobby;
+                target = upperFloor(bottomFloor, floors, lobby);
+            } else {
+                origin = upperFloor(bottomFloor, floors, lobby);
+                target = lobby;
+            }
+        }
+
+        Person person = new Person(nextWeight(), origin, target);
+
+        arrivals++;
+        hall.queue(person);
+
+        return person;
+    }
+
+    /**
+     * Writes the generator's position in its profile and the state of its
+     * random generator to a checkpoint
+     *
+     * @param out Output
+     * @throws IOException On failure
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(rand.getState());
+        out.writeDouble(time);
+        out.writeLong(arrivals);
+    }
+
+    /**
+     * Restores a state written by writeState, the generator continues with
+     * the arrivals it would have generated next
+     *
+     * @param in Input
+     * @throws IOException On failure
+     */
+    public void readState(DataInput in) throws IOException {
+        rand.setState(in.readLong());
+        time = in.readDouble();
+        arrivals = in.readLong();
+    }
+
+    /**
+     * Starts generating arrivals in real time on a thread of its own
+     *
+     * @param mode Execution mode of the thread
+     */
+    public void start(ExecutionMode mode) {
+        running = true;
+
+        Runnable run = () -> {
+            long due = System.nanoTime(), interval;
+
+            while (running && (interval = nextInterval()) >= 0) {
+                due += interval * 1000000;
+
+                while (running && System.nanoTime() - due < 0) {
+                    LockSupport.parkNanos(this, due - System.nanoTime());
+                }
+
+                if (running) {
+                    spawn();
+                }
+            }
+        };
+
+        mode.newThread(run, String.format("Traffic%s", profile.getName())).start();
+    }
+
+    /**
+     * Stops generating arrivals in real time
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Gets the traffic profile
+     *
+     * @return Traffic profile
+     */
+    public TrafficProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Gets the profile time of the latest arrival
+     *
+     * @return Milliseconds since the start of the profile
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the amount of generated arrivals
+     *
+     * @return Arrival count
+     */
+    public long getArrivalCount() {
+        return arrivals;
+    }
+
+    /**
+     * Gets the random generator of the arrivals
+     *
+     * @return Random generator
+     */
+    public SplitMixRandom getRandom() {
+        return rand;
+    }
+
+    /**
+     * Seeds the generator, the same seed generates the same arrivals
+     *
+     * @param seed Seed
+     */
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+    }
+
+    /**
+     * Traffic generator
+     *
+     * @param profile Traffic profile
+     * @param hall Hall call queue the persons are queued at
+     * @param seed Seed
+     */
+    public TrafficGenerator(TrafficProfile profile, HallCallQueue hall, long seed) {
+        this.profile = profile;
+        this.hall = hall;
+        this.rand = new SplitMixRandom(seed);
+    }
+
+}
@@ -0,0 +1,137 @@
+package elevator.traffic;
+
+/**
+ * Period of a traffic profile with its own arrival rate and mix of trips
+ *
+ * The arrival rate changes linearly from the start rate to the end rate over
+ * the phase. Every arrival is an up trip (lobby to an upper floor), a down
+ * trip (upper floor to the lobby) or an interfloor trip (between two upper
+ * floors), in the given proportions.
+ */
+public final class TrafficPhase {
+
+    private final String name;
+    private final long duration;
+    private final double startRate;
+    private final double endRate;
+    private final double up;
+    private final double down;
+    private final double interfloor;
+
+    /**
+     * Gets the arrival rate at a time within the phase
+     *
+     * @param time Milliseconds since the start of the phase
+     * @return Arrivals per minute
+     */
+    public double getRate(double time) {
+        return startRate + (endRate - startRate) * Math.min(1.0, Math.max(0.0, time / duration));
+    }
+
+    /**
+     * Gets the highest arrival rate of the phase
+     *
+     * @return Arrivals per minute
+     */
+    public double getPeakRate() {
+        return Math.max(startRate, endRate);
+    }
+
+    /**
+     * Gets the phase name
+     *
+     * @return Name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the duration of the phase
+     *
+     * @return Duration in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the fraction of up trips
+     *
+     * @return Fraction between 0 and 1
+     */
+    public double getUp() {
+        return up;
+    }
+
+    /**
+     * Gets the fraction of down trips
+     *
+     * @return Fraction between 0 and 1
+     */
+    public double getDown() {
+        return down;
+    }
+
+    /**
+     * Gets the fraction of interfloor trips
+     *
+     * @return Fraction between 0 and 1
+     */
+    public double getInterfloor() {
+        return interfloor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d min, %.1f-%.1f/min, %.0f%% up, %.0f%% down, %.0f%% interfloor)",
+                name, duration / 60000, startRate, endRate, up * 100, down * 100, interfloor * 100);
+    }
+
+    /**
+     * Traffic phase, the trip fractions are normalized to add up to 1
+     *
+     * @param name Phase name
+     * @param minutes Duration in minutes
+     * @param startRate Arrivals per minute at the start of the phase
+     * @param endRate Arrivals per minute at the end of the phase
+     * @param up Share of up trips
+     * @param down Share of down trips
+     * @param interfloor Share of interfloor trips
+     */
+    public TrafficPhase(String name, double minutes, double startRate, double endRate,
+            double up, double down, double interfloor) {
+        double total = up + down + interfloor;
+
+        if (minutes <= 0 || startRate < 0 || endRate < 0) {
+            throw new IllegalArgumentException("Phase duration must be positive and rates non-negative");
+        }
+
+        if (up < 0 || down < 0 || interfloor < 0 || total <= 0) {
+            throw new IllegalArgumentException("Trip shares must be non-negative and not all 0");
+        }
+
+        this.name = name;
+        this.duration = Math.round(minutes * 60000);
+        this.startRate = startRate;
+        this.endRate = endRate;
+        this.up = up / total;
+        this.down = down / total;
+        this.interfloor = interfloor / total;
+    }
+
+    /**
+     * Traffic phase with a constant arrival rate
+     *
+     * @param name Phase name
+     * @param minutes Duration in minutes
+     * @param rate Arrivals per minute
+     * @param up Share of up trips
+     * @param down Share of down trips
+     * @param interfloor Share of interfloor trips
+     */
+    public TrafficPhase(String name, double minutes, double rate, double up, double down, double interfloor) {
+        this(name, minutes, rate, rate, up, down, interfloor);
+    }
+
+}
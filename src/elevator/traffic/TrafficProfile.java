@@ -0,0 +1,298 @@
+package elevator.traffic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declarative description of the traffic of a building over time
+ *
+ * A profile is a sequence of phases, each with its arrival rate and its mix
+ * of up, down and interfloor trips, and the distribution of the weights of
+ * the persons. A repeating profile starts over after its last phase.
+ */
+public final class TrafficProfile {
+
+    /**
+     * Lobby of a building without one, every trip is between two uniformly
+     * chosen floors whatever the trip mix of the phase
+     */
+    public static final int NO_LOBBY = Integer.MAX_VALUE;
+
+    private final String name;
+    private final List<TrafficPhase> phases;
+    private final long[] phaseStarts;
+    private final long duration;
+    private final double peakRate;
+
+    private int lobby = Integer.MIN_VALUE;
+    private boolean repeating = true;
+
+    // Weight distribution in kilograms, normal and clamped
+    private double weightMean = 75;
+    private double weightDeviation = 15;
+    private int weightMin = 20;
+    private int weightMax = 200;
+
+    /**
+     * Office building: light night traffic, an up-peak in the morning, a
+     * lunch peak in both directions and a down-peak in the evening
+     *
+     * @param peakRate Arrivals per minute during the peaks
+     * @return Traffic profile repeating every 24 hours
+     */
+    public static TrafficProfile officeDay(double peakRate) {
+        double quiet = peakRate / 30, office = peakRate / 4;
+
+        return new TrafficProfile("office day",
+                new TrafficPhase("night", 7 * 60, quiet, 0.3, 0.3, 0.4),
+                new TrafficPhase("arrival", 60, quiet, peakRate, 0.8, 0.05, 0.15),
+                new TrafficPhase("up-peak", 60, peakRate, office, 0.85, 0.05, 0.1),
+                new TrafficPhase("morning", 3 * 60, office, 0.3, 0.2, 0.5),
+                new TrafficPhase("lunch", 60, peakRate * 0.6, 0.45, 0.45, 0.1),
+                new TrafficPhase("afternoon", 3.5 * 60, office, 0.2, 0.3, 0.5),
+                new TrafficPhase("down-peak", 90, peakRate, quiet, 0.05, 0.85, 0.1),
+                new TrafficPhase("evening", 6 * 60, quiet, 0.3, 0.4, 0.3));
+    }
+
+    /**
+     * Constant traffic between uniformly chosen floors, the lobby included
+     * like any other floor
+     *
+     * @param rate Arrivals per minute
+     * @return Traffic profile without a lobby
+     */
+    public static TrafficProfile uniform(double rate) {
+        TrafficProfile profile = new TrafficProfile("uniform", new TrafficPhase("uniform", 60, rate, 0, 0, 1));
+
+        profile.setLobby(NO_LOBBY);
+
+        return profile;
+    }
+
+    /**
+     * Constant interfloor traffic between uniformly chosen floors other than
+     * the lobby, lobby trips only in a building of two floors
+     *
+     * @param rate Arrivals per minute
+     * @return Traffic profile
+     */
+    public static TrafficProfile interfloor(double rate) {
+        return new TrafficProfile("interfloor", new TrafficPhase("interfloor", 60, rate, 0, 0, 1));
+    }
+
+    /**
+     * Gets the index of the phase at a time
+     *
+     * @param time Milliseconds since the start of the profile
+     * @return Phase index, -1 if a non repeating profile has ended
+     */
+    public int getPhaseIndex(double time) {
+        if (time < 0 || (!repeating && time >= duration)) {
+            return -1;
+        }
+
+        long t = (long) time % duration;
+        int index = Arrays.binarySearch(phaseStarts, t);
+
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Gets the phase at a time
+     *
+     * @param time Milliseconds since the start of the profile
+     * @return Phase, null if a non repeating profile has ended
+     */
+    public TrafficPhase getPhase(double time) {
+        int index = getPhaseIndex(time);
+
+        return index < 0 ? null : phases.get(index);
+    }
+
+    /**
+     * Gets the arrival rate at a time
+     *
+     * @param time Milliseconds since the start of the profile
+     * @return Arrivals per minute
+     */
+    public double getRate(double time) {
+        int index = getPhaseIndex(time);
+
+        if (index < 0) {
+            return 0;
+        }
+
+        return phases.get(index).getRate(time % duration - phaseStarts[index]);
+    }
+
+    /**
+     * Gets the highest arrival rate of the profile
+     *
+     * @return Arrivals per minute
+     */
+    public double getPeakRate() {
+        return peakRate;
+    }
+
+    /**
+     * Gets the duration of a single run through the phases
+     *
+     * @return Duration in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the profile name
+     *
+     * @return Name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the phases
+     *
+     * @return Unmodifiable list of phases
+     */
+    public List<TrafficPhase> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Gets the lobby floor
+     *
+     * @return Lobby floor, Integer.MIN_VALUE for the bottom floor, NO_LOBBY
+     *         if the building has none
+     */
+    public int getLobby() {
+        return lobby;
+    }
+
+    /**
+     * Returns true if the profile starts over after its last phase
+     *
+     * @return True if repeating
+     */
+    public boolean isRepeating() {
+        return repeating;
+    }
+
+    /**
+     * Gets the mean weight of a person
+     *
+     * @return Mean weight
+     */
+    public double getWeightMean() {
+        return weightMean;
+    }
+
+    /**
+     * Gets the standard deviation of the weights
+     *
+     * @return Standard deviation
+     */
+    public double getWeightDeviation() {
+        return weightDeviation;
+    }
+
+    /**
+     * Gets the lowest weight of a person
+     *
+     * @return Minimum weight
+     */
+    public int getWeightMin() {
+        return weightMin;
+    }
+
+    /**
+     * Gets the highest weight of a person
+     *
+     * @return Maximum weight
+     */
+    public int getWeightMax() {
+        return weightMax;
+    }
+
+    /**
+     * Sets the lobby floor, where up trips start and down trips end
+     *
+     * @param lobby Lobby floor, Integer.MIN_VALUE for the bottom floor,
+     *        NO_LOBBY for a building without one
+     */
+    public void setLobby(int lobby) {
+        this.lobby = lobby;
+    }
+
+    /**
+     * Sets whether the profile starts over after its last phase
+     *
+     * @param repeating True to repeat
+     */
+    public void setRepeating(boolean repeating) {
+        this.repeating = repeating;
+    }
+
+    /**
+     * Sets the distribution of the weights, normal and clamped to the range
+     *
+     * @param mean Mean weight
+     * @param deviation Standard deviation, 0 for a constant weight
+     * @param min Minimum weight
+     * @param max Maximum weight
+     */
+    public void setWeights(double mean, double deviation, int min, int max) {
+        if (deviation < 0 || min > max) {
+            throw new IllegalArgumentException("Invalid weight distribution");
+        }
+
+        this.weightMean = mean;
+        this.weightDeviation = deviation;
+        this.weightMin = min;
+        this.weightMax = max;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append(':');
+
+        for (TrafficPhase phase : phases) {
+            sb.append(System.lineSeparator()).append("  ").append(phase);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Traffic profile
+     *
+     * @param name Profile name
+     * @param phases Phases in order
+     */
+    public TrafficProfile(String name, TrafficPhase... phases) {
+        if (phases.length == 0) {
+            throw new IllegalArgumentException("A traffic profile needs at least one phase");
+        }
+
+        long start = 0;
+        double peak = 0;
+
+        this.name = name;
+        this.phases = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(phases)));
+        this.phaseStarts = new long[phases.length];
+
+        for (int i = 0; i < phases.length; i++) {
+            phaseStarts[i] = start;
+            start += phases[i].getDuration();
+            peak = Math.max(peak, phases[i].getPeakRate());
+        }
+
+        this.duration = start;
+        this.peakRate = peak;
+    }
+
+}
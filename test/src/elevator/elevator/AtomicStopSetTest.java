@@ -0,0 +1,92 @@
+package elevator.elevator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks the atomic stop set on its own and with producers racing each other
+ * and the thread draining it
+ */
+public class AtomicStopSetTest extends TestCase {
+
+    private static final int PRODUCERS = 4;
+    private static final int FLOORS = 128;
+    private static final int ROUNDS = 200;
+
+    private void addsAndDrains() {
+        AtomicStopSet set = new AtomicStopSet(-10, 100);
+        StopSet target = new StopSet();
+
+        check(set.covers(-10) && set.covers(100), "covers the range");
+        check(!set.covers(-11) && !set.covers(101), "does not cover outside of the range");
+        check(set.isEmpty(), "empty");
+
+        check(set.add(-10), "adds the bottom floor");
+        check(set.add(100), "adds the top floor");
+        check(set.add(63), "adds a floor");
+        check(!set.add(63), "does not add a floor twice");
+        checkEquals(3, set.size(), "size");
+
+        check(set.remove(63), "removes a floor");
+        check(!set.remove(63), "does not remove a floor twice");
+        check(!set.remove(1000), "does not remove outside of the range");
+
+        checkEquals(2, set.drainTo(target), "drained");
+        check(set.isEmpty(), "empty after draining");
+        check(target.contains(-10) && target.contains(100), "drained floors");
+        checkEquals(2, target.size(), "drained stop count");
+    }
+
+    private void racesProducers() throws InterruptedException {
+        AtomicStopSet set = new AtomicStopSet(0, FLOORS - 1);
+        StopSet target = new StopSet(0, FLOORS - 1);
+        AtomicInteger added = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[PRODUCERS];
+        int drained = 0;
+
+        for (int i = 0; i < PRODUCERS; i++) {
+            producers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int floor = 0; floor < FLOORS; floor++) {
+                        if (set.add(floor)) {
+                            added.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            producers[i].start();
+        }
+
+        start.countDown();
+
+        // Drains while the producers add, every floor added is drained once
+        for (Thread producer : producers) {
+            while (producer.isAlive()) {
+                drained += set.drainTo(target);
+                Thread.yield();
+            }
+        }
+
+        drained += set.drainTo(target);
+
+        checkEquals(added.get(), drained, "drained floors");
+        checkEquals(FLOORS, target.size(), "distinct floors");
+        check(set.isEmpty(), "empty after draining");
+    }
+
+    @Override
+    public void run() throws InterruptedException {
+        addsAndDrains();
+        racesProducers();
+    }
+
+}
@@ -0,0 +1,86 @@
+package elevator.elevator;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks that the predictor sums a bucket with its neighbours, wraps around
+ * midnight and halves a count after its half-life
+ */
+public class DemandPredictorTest extends TestCase {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    /**
+     * Fails the test unless a demand is close to the expected one
+     *
+     * @param expected Expected demand
+     * @param actual Actual demand
+     * @param message Description of the demand
+     */
+    private static void checkDemand(double expected, double actual, String message) {
+        check(Math.abs(expected - actual) < 1e-3, String.format("%s: expected %.3f, was %.3f", message, expected, actual));
+    }
+
+    private void sumsTheNeighbours() {
+        // Hour buckets that barely decay
+        DemandPredictor predictor = new DemandPredictor(0, 9, HOUR, 1000 * DemandPredictor.DAY);
+
+        for (int i = 0; i < 4; i++) {
+            predictor.record(3, 8 * HOUR);
+        }
+
+        predictor.record(5, 9 * HOUR + 10 * 60 * 1000);
+        predictor.record(5, 9 * HOUR + 20 * 60 * 1000);
+
+        checkDemand(4, predictor.getExpectedDemand(3, 8 * HOUR + HOUR / 2), "floor 3 in its bucket");
+        checkDemand(4, predictor.getExpectedDemand(3, 9 * HOUR + HOUR / 2), "floor 3 a bucket later");
+        checkDemand(0, predictor.getExpectedDemand(3, 10 * HOUR + HOUR / 2), "floor 3 two buckets later");
+        checkDemand(2, predictor.getExpectedDemand(5, 10 * HOUR + HOUR / 2), "floor 5 a bucket later");
+        checkDemand(0, predictor.getExpectedDemand(4, 8 * HOUR), "floor without arrivals");
+
+        double[] demand = predictor.getExpectedDemand(9 * HOUR);
+
+        checkEquals(10, demand.length, "floors");
+        checkDemand(4, demand[3], "floor 3 of every floor");
+        checkDemand(2, demand[5], "floor 5 of every floor");
+    }
+
+    private void wrapsAroundMidnight() {
+        DemandPredictor predictor = new DemandPredictor(-2, 2, HOUR, 1000 * DemandPredictor.DAY);
+
+        predictor.record(-2, 23 * HOUR + HOUR / 2);
+        predictor.record(99, 23 * HOUR);
+
+        checkDemand(1, predictor.getExpectedDemand(-2, 24 * HOUR + HOUR / 4), "after midnight");
+        checkDemand(0, predictor.getExpectedDemand(99, 23 * HOUR), "outside of the floors");
+    }
+
+    private void decaysWithItsHalfLife() {
+        DemandPredictor predictor = new DemandPredictor(0, 4, HOUR, DemandPredictor.DAY);
+
+        predictor.record(2, 8 * HOUR);
+        checkDemand(0.5, predictor.getExpectedDemand(2, DemandPredictor.DAY + 8 * HOUR), "a day later");
+
+        // A new arrival adds to the decayed count
+        predictor.record(2, DemandPredictor.DAY + 8 * HOUR);
+        checkDemand(1.5, predictor.getExpectedDemand(2, DemandPredictor.DAY + 8 * HOUR), "with a new arrival");
+    }
+
+    private void rejectsBadBuckets() {
+        try {
+            new DemandPredictor(0, 4, 7 * 60 * 1000L, DemandPredictor.DAY);
+            check(false, "accepted a bucket length that does not divide a day");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Override
+    public void run() {
+        sumsTheNeighbours();
+        wrapsAroundMidnight();
+        decaysWithItsHalfLife();
+        rejectsBadBuckets();
+    }
+
+}
@@ -0,0 +1,100 @@
+package elevator.elevator;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks which car the bank assigns a call to, also when every car is full,
+ * and that calls a car leaves behind move to a better suited car
+ */
+public class ElevatorBankTest extends TestCase {
+
+    /**
+     * Creates a bank whose cars notify their stops on the stepping thread
+     *
+     * @param cars Car count
+     * @return Bank
+     */
+    private static ElevatorBank bank(int cars) {
+        ElevatorBank bank = new ElevatorBank("Test", cars, 0, 9);
+
+        for (int i = 0; i < cars; i++) {
+            bank.getCar(i).setDispatcher(new ElevatorDispatcher("Test", 0));
+        }
+
+        return bank;
+    }
+
+    /**
+     * Steps an elevator until it has no stops left
+     *
+     * @param elevator Elevator
+     */
+    private static void runIdle(Elevator elevator) {
+        for (int i = 0; i < 100 && elevator.step() != Elevator.IDLE; i++) {
+        }
+    }
+
+    private void picksTheClosestCar() {
+        ElevatorBank bank = bank(3);
+
+        bank.getCar(2).request(6);
+        runIdle(bank.getCar(2));
+
+        checkEquals(2, bank.selectCar(new Person(70, 7, 0)), "car closest to the call");
+        checkEquals(0, bank.selectCar(new Person(70, 1, 9)), "car closest to the lobby call");
+    }
+
+    private void fallsBackWhenFull() {
+        ElevatorBank bank = bank(3);
+
+        bank.setMaxPeople(2);
+
+        // Every car is full, the third one has a single stop to make
+        for (int i = 0; i < 3; i++) {
+            Elevator car = bank.getCar(i);
+
+            car.addPassenger(new Person(70, 0, 3), true);
+            car.addPassenger(new Person(70, 0, i == 2 ? 3 : 5), true);
+        }
+
+        checkEquals(2, bank.selectCar(new Person(70, 1, 9)), "car with the fewest stops");
+
+        // The first car drops a passenger, and is then the least loaded
+        bank.getCar(0).request(3);
+        runIdle(bank.getCar(0));
+        bank.getCar(0).addPassenger(new Person(70, 0, 3), false);
+
+        checkEquals(0, bank.selectCar(new Person(70, 1, 9)), "car with room");
+    }
+
+    private void reassignsTheOtherWay() {
+        ElevatorBank bank = bank(2);
+        Elevator passing = bank.getCar(0), idle = bank.getCar(1);
+        Person down = new Person(70, 3, 0);
+
+        idle.request(5);
+        runIdle(idle);
+
+        // Assigned to the first car as it sets off for the top floor
+        passing.request(9);
+        bank.getQueuer(0).queue(down);
+
+        while (passing.getFloor() < 3) {
+            passing.step();
+        }
+
+        passing.step();
+
+        check(bank.getQueuer(0).getFloorQueue(3, -1).isEmpty(), "withdrawn from the passing car");
+        check(bank.getQueuer(1).getFloorQueue(3, -1).contains(down), "handed to the idle car");
+        check(idle.hasStop(3), "idle car called");
+    }
+
+    @Override
+    public void run() {
+        picksTheClosestCar();
+        fallsBackWhenFull();
+        reassignsTheOtherWay();
+    }
+
+}
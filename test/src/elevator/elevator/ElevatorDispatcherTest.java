@@ -0,0 +1,144 @@
+package elevator.elevator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks that a full or shut down dispatcher drops events and reports it,
+ * and that an elevator notifies a dropped STOP again
+ */
+public class ElevatorDispatcherTest extends TestCase {
+
+    private static final long TIMEOUT_NANOS = 5000000000L;
+
+    /**
+     * Waits until the event loop has taken every queued event
+     *
+     * @param dispatcher Dispatcher
+     */
+    private static void awaitTaken(ElevatorDispatcher dispatcher) {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+
+        while (dispatcher.getPendingCount() > 0) {
+            check(System.nanoTime() - deadline < 0, "event loop stuck");
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Waits until the event loop has delivered a number of events
+     *
+     * @param dispatcher Dispatcher
+     * @param count Delivered events
+     */
+    private static void awaitDelivered(ElevatorDispatcher dispatcher, long count) {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+
+        while (dispatcher.getDeliveredCount() < count) {
+            check(System.nanoTime() - deadline < 0,
+                    String.format("delivered %d of %d events", dispatcher.getDeliveredCount(), count));
+            Thread.yield();
+        }
+    }
+
+    private void dropsWhenFull() throws InterruptedException {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher("Test", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> received = new CopyOnWriteArrayList<>();
+
+        dispatcher.addListener(ElevatorAction.STOP, floor -> {
+            received.add(floor);
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        check(dispatcher.dispatch(ElevatorAction.STOP, 1), "delivered to the event loop");
+        awaitTaken(dispatcher);
+
+        check(dispatcher.dispatch(ElevatorAction.STOP, 2), "queued");
+        check(!dispatcher.dispatch(ElevatorAction.STOP, 3), "dropped while full");
+        checkEquals(1, dispatcher.getDroppedCount(), "dropped");
+
+        release.countDown();
+        awaitDelivered(dispatcher, 2);
+
+        check(received.equals(Arrays.asList(1, 2)), "received " + received);
+
+        dispatcher.shutdown();
+
+        check(!dispatcher.isRunning(), "not running after shutdown");
+        check(!dispatcher.dispatch(ElevatorAction.STOP, 4), "dropped after shutdown");
+        checkEquals(2, dispatcher.getDroppedCount(), "dropped");
+    }
+
+    private void deliversDirectly() {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher("Test", 0);
+        Thread[] thread = new Thread[1];
+
+        dispatcher.addListener(ElevatorAction.STOP, floor -> thread[0] = Thread.currentThread());
+
+        check(dispatcher.dispatch(ElevatorAction.STOP, 1), "delivered");
+        check(thread[0] == Thread.currentThread(), "delivered on the calling thread");
+        checkEquals(0, dispatcher.getQueuedCount(), "queued");
+        checkEquals(1, dispatcher.getDeliveredCount(), "delivered");
+    }
+
+    private void notifiesDroppedStopsAgain() throws InterruptedException {
+        Elevator elevator = new Elevator(0, "Test");
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher("Test", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> stops = new CopyOnWriteArrayList<>();
+
+        elevator.setFloorRange(0, 9);
+        elevator.setDispatcher(dispatcher);
+        elevator.addListener(ElevatorAction.STOP, stop -> {
+            stops.add(stop);
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        elevator.request(3);
+
+        // The STOP of floor 1 blocks the event loop, the one of floor 2
+        // fills the queue and the one of floor 3 is dropped
+        elevator.step();
+        awaitTaken(dispatcher);
+        elevator.step();
+        elevator.step();
+
+        checkEquals(3, elevator.getFloor(), "floor");
+        checkEquals(1, dispatcher.getDroppedCount(), "dropped");
+
+        release.countDown();
+        awaitTaken(dispatcher);
+
+        // Stays at the floor and notifies it again
+        elevator.step();
+        awaitDelivered(dispatcher, 3);
+
+        checkEquals(3, stops.size(), "notified stops");
+        checkEquals(3, elevator.getFloor(), "floor after notifying again");
+
+        dispatcher.shutdown();
+    }
+
+    @Override
+    public void run() throws InterruptedException {
+        dropsWhenFull();
+        deliversDirectly();
+        notifiesDroppedStopsAgain();
+    }
+
+}
@@ -0,0 +1,138 @@
+package elevator.elevator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks that the events of a ring arrive complete and in order across many
+ * laps, and that the ring only drops events for polled consumers
+ */
+public class ElevatorEventRingTest extends TestCase {
+
+    private static final int LAPS = 50;
+
+    /**
+     * Fails the test unless the consumer received the floors 0 and up, in
+     * order
+     *
+     * @param floors Received floors
+     * @param count Expected amount
+     */
+    private static void checkFloors(List<Integer> floors, int count) {
+        checkEquals(count, floors.size(), "received events");
+
+        for (int i = 0; i < count; i++) {
+            checkEquals(i, floors.get(i), "floor of event " + i);
+        }
+    }
+
+    private void wrapsAround() {
+        ElevatorEventRing ring = new ElevatorEventRing("Test", 4);
+        List<Integer> floors = new ArrayList<>();
+        long[] last = { -1 };
+
+        ElevatorEventRing.Cursor cursor = ring.addConsumer((event, endOfBatch) -> {
+            checkEquals(last[0] + 1, event.getSequence(), "sequence");
+            last[0] = event.getSequence();
+            floors.add(event.getFloor());
+        });
+
+        int floor = 0;
+
+        // Three events per poll, so that the batches straddle the end of the
+        // ring
+        for (int lap = 0; lap < LAPS; lap++) {
+            for (int i = 0; i < 3; i++) {
+                check(ring.publish(ElevatorAction.STOP, floor++, 1, 0, null), "published");
+            }
+
+            checkEquals(3, cursor.poll(), "handled");
+        }
+
+        checkFloors(floors, floor);
+        checkEquals(0, ring.getDroppedCount(), "dropped");
+        checkEquals(0, cursor.getLag(), "lag");
+    }
+
+    private void dropsForPolledConsumers() {
+        ElevatorEventRing ring = new ElevatorEventRing("Test", 4);
+        List<Integer> floors = new ArrayList<>();
+
+        ElevatorEventRing.Cursor cursor = ring.addConsumer((event, endOfBatch) -> floors.add(event.getFloor()));
+
+        for (int floor = 0; floor < 4; floor++) {
+            check(ring.publish(ElevatorAction.STOP, floor, 1, 0, null), "published into a free slot");
+        }
+
+        check(!ring.isHandled(3), "not handled before polling");
+        check(!ring.publish(ElevatorAction.STOP, 4, 1, 0, null), "dropped a whole ring ahead");
+        check(!ring.publish(ElevatorAction.STOP, 5, 1, 0, null), "dropped a whole ring ahead");
+        checkEquals(2, ring.getDroppedCount(), "dropped");
+        checkEquals(4, ring.getPublishedCount(), "published");
+
+        checkEquals(4, cursor.poll(), "handled");
+        check(ring.isHandled(3), "handled after polling");
+        checkFloors(floors, 4);
+
+        check(ring.publish(ElevatorAction.STOP, 4, 1, 0, null), "published once the slots are free");
+    }
+
+    private void carriesTheEvent() {
+        ElevatorEventRing ring = new ElevatorEventRing("Test", 2);
+        Person person = new Person(80, 2, 7);
+        List<String> handled = new ArrayList<>();
+
+        person.setBoardTime(1000);
+        person.setEjectTime(4000);
+
+        // The slot is reused, so the handler keeps what it checks
+        ElevatorEventRing.Cursor cursor = ring.addConsumer((event, endOfBatch) -> handled.add(String.format(
+                "%s %d %d %d %d %d %d", event.getAction(), event.getFloor(), event.getDirection(), event.getTime(),
+                event.getTargetFloor(), event.getWeight(), event.getRideTime())));
+
+        ring.publish(ElevatorAction.STOP, 3, -1, 500, null);
+        ring.publish(ElevatorAction.EJECT, 7, 1, 4000, person);
+        cursor.poll();
+
+        check(handled.get(0).equals("STOP 3 -1 500 0 0 -1"), "STOP event: " + handled.get(0));
+        check(handled.get(1).equals("EJECT 7 1 4000 7 80 3000"), "EJECT event: " + handled.get(1));
+    }
+
+    private void waitsForStartedConsumers() throws InterruptedException {
+        ElevatorEventRing ring = new ElevatorEventRing("Test", 2);
+        List<Integer> floors = new ArrayList<>();
+        int count = 500;
+
+        ElevatorEventRing.Cursor cursor = ring.addConsumer((event, endOfBatch) -> {
+            // A slow consumer, the producer laps it unless it waits
+            if (event.getFloor() % 50 == 0) {
+                Thread.yield();
+            }
+
+            floors.add(event.getFloor());
+        });
+
+        Thread thread = cursor.start(ExecutionMode.PLATFORM);
+
+        for (int floor = 0; floor < count; floor++) {
+            check(ring.publish(ElevatorAction.STOP, floor, 1, 0, null), "published");
+        }
+
+        ring.stop();
+        thread.join();
+
+        checkEquals(0, ring.getDroppedCount(), "dropped");
+        checkFloors(floors, count);
+    }
+
+    @Override
+    public void run() throws InterruptedException {
+        wrapsAround();
+        dropsForPolledConsumers();
+        carriesTheEvent();
+        waitsForStartedConsumers();
+    }
+
+}
@@ -0,0 +1,112 @@
+package elevator.elevator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks that a stop boards the front of the elevator's call as far as the
+ * limits allow and leaves everyone else queued in order, taking the call of
+ * the direction the stop was made in
+ */
+public class ElevatorQueuerTest extends TestCase {
+
+    /**
+     * Fails the test unless the persons are the expected ones, in order
+     *
+     * @param expected Expected persons
+     * @param actual Actual persons
+     * @param message Description of the persons
+     */
+    private static void checkPersons(List<Person> expected, List<Person> actual, String message) {
+        checkEquals(expected.size(), actual.size(), message + " count");
+
+        for (int i = 0; i < expected.size(); i++) {
+            check(expected.get(i) == actual.get(i), String.format("%s: %s at %d, was %s",
+                    message, expected.get(i), i, actual.get(i)));
+        }
+    }
+
+    /**
+     * Creates an elevator notifying its stops on the stepping thread
+     *
+     * @param floor Starting floor
+     * @return Elevator
+     */
+    private static Elevator elevator(int floor) {
+        Elevator elevator = new Elevator(floor, "Test");
+
+        elevator.setFloorRange(0, 9);
+        elevator.setDispatcher(new ElevatorDispatcher("Test", 0));
+
+        return elevator;
+    }
+
+    private void boardsTheFront() {
+        Elevator elevator = elevator(2);
+        ElevatorQueuer queuer = new ElevatorQueuer(elevator);
+        Person a = new Person(80, 2, 5), heavy = new Person(150, 2, 6), c = new Person(60, 2, 7),
+                d = new Person(50, 2, 8), e = new Person(40, 2, 9), down = new Person(70, 2, 0);
+
+        elevator.setMaxPeople(3);
+        elevator.setMaxWeight(200);
+
+        for (Person person : Arrays.asList(a, heavy, c, d, e, down)) {
+            queuer.queue(person);
+        }
+
+        // Heads up, with the call that waited the longest
+        elevator.step();
+
+        checkPersons(Arrays.asList(a, c, d), elevator.getPassengers(), "passengers");
+        checkPersons(Arrays.asList(heavy, e), queuer.getFloorQueue(2, 1), "left behind going up");
+        checkPersons(Arrays.asList(down), queuer.getFloorQueue(2, -1), "waiting to go down");
+        checkEquals(2, queuer.getLeftBehindCount(), "left behind");
+        check(elevator.hasStop(5) && elevator.hasStop(7) && elevator.hasStop(8), "targets requested");
+    }
+
+    private void keepsTheOtherWay() {
+        Elevator elevator = elevator(0);
+        ElevatorQueuer queuer = new ElevatorQueuer(elevator);
+        Person down = new Person(70, 3, 1), up = new Person(70, 3, 6);
+
+        elevator.request(6);
+        queuer.queue(down);
+        queuer.queue(up);
+
+        // Passes floors 1 and 2 and stops at 3 on its way up
+        for (int i = 0; i < 3; i++) {
+            elevator.step();
+        }
+
+        checkEquals(3, elevator.getFloor(), "floor");
+        checkPersons(Arrays.asList(up), elevator.getPassengers(), "passengers going up");
+        checkPersons(Arrays.asList(down), queuer.getFloorQueue(3, -1), "waiting to go down");
+    }
+
+    private void takesTheStopDirection() {
+        Elevator elevator = elevator(3);
+        ElevatorQueuer queuer = new ElevatorQueuer(elevator);
+        Person up = new Person(70, 3, 6), down = new Person(70, 3, 1);
+
+        elevator.request(1);
+        elevator.request(6);
+        queuer.queue(up);
+        queuer.queue(down);
+
+        // Delivered as if late, the elevator itself has no direction yet
+        elevator.getDispatcher().dispatch(ElevatorAction.STOP, new ElevatorStop(3, -1));
+
+        checkPersons(Arrays.asList(down), elevator.getPassengers(), "passengers going down");
+        checkPersons(Arrays.asList(up), queuer.getFloorQueue(3, 1), "waiting to go up");
+    }
+
+    @Override
+    public void run() {
+        boardsTheFront();
+        keepsTheOtherWay();
+        takesTheStopDirection();
+    }
+
+}
@@ -0,0 +1,33 @@
+package elevator.elevator;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks that VIRTUAL always creates a usable thread, a virtual one where
+ * the JVM supports them and a daemon platform thread otherwise
+ */
+public class ExecutionModeTest extends TestCase {
+
+    @Override
+    public void run() throws InterruptedException {
+        boolean[] ran = new boolean[1];
+        Thread thread = ExecutionMode.VIRTUAL.newThread(() -> ran[0] = true, "Test");
+
+        check(thread != null, "thread created");
+        check(thread.getName().equals("Test"), "thread named");
+
+        if (ExecutionMode.isVirtualSupported()) {
+            check(ExecutionMode.VIRTUAL.effective() == ExecutionMode.VIRTUAL, "virtual in effect");
+        } else {
+            check(ExecutionMode.VIRTUAL.effective() == ExecutionMode.PLATFORM, "falls back to platform");
+            check(thread.isDaemon(), "fallback is a daemon");
+        }
+
+        thread.start();
+        thread.join();
+
+        check(ran[0], "task ran");
+        check(!ExecutionMode.PLATFORM.newThread(() -> { }, "Test").isDaemon(), "platform thread");
+    }
+
+}
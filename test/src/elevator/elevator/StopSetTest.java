@@ -0,0 +1,100 @@
+package elevator.elevator;
+
+import java.util.Arrays;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks that a stop set keeps its stops and their order when it grows
+ * above and below its initial range
+ */
+public class StopSetTest extends TestCase {
+
+    /**
+     * Fails the test unless the stops are the expected ones
+     *
+     * @param expected Expected stops
+     * @param actual Actual stops
+     * @param message Description of the stops
+     */
+    private static void checkStops(int[] expected, int[] actual, String message) {
+        check(Arrays.equals(expected, actual),
+                String.format("%s: expected %s, was %s", message, Arrays.toString(expected), Arrays.toString(actual)));
+    }
+
+    private void growsUp() {
+        StopSet stops = new StopSet(0, 63);
+
+        stops.add(5);
+        stops.add(1000);
+        stops.add(200);
+
+        checkEquals(3, stops.size(), "size");
+        check(stops.contains(1000) && !stops.contains(999), "contains above the range");
+        checkEquals(5, stops.lowest(), "lowest");
+        checkEquals(1000, stops.highest(), "highest");
+        checkEquals(200, stops.nextAbove(5), "next above 5");
+        checkEquals(StopSet.NONE, stops.nextAbove(1000), "next above the highest");
+        checkEquals(200, stops.nextBelow(1000), "next below 1000");
+        checkStops(new int[] { 5, 200, 1000 }, stops.toArray(), "ascending");
+        checkStops(new int[] { 5, 1000, 200 }, stops.toArrayByAge(), "by age");
+    }
+
+    private void growsDown() {
+        StopSet stops = new StopSet(10, 20);
+
+        stops.add(15);
+        stops.add(-100);
+        stops.add(-1);
+        stops.add(-300);
+
+        checkEquals(4, stops.size(), "size");
+        check(stops.contains(-300) && stops.contains(15) && !stops.contains(0), "contains below the range");
+        checkEquals(-300, stops.lowest(), "lowest");
+        checkEquals(15, stops.highest(), "highest");
+        checkEquals(-1, stops.nextBelow(15), "next below 15");
+        checkEquals(-300, stops.nextBelow(-100), "next below -100");
+        checkEquals(StopSet.NONE, stops.nextBelow(-300), "next below the lowest");
+        checkStops(new int[] { -300, -100, -1, 15 }, stops.toArray(), "ascending");
+        checkStops(new int[] { 15, -100, -1, -300 }, stops.toArrayByAge(), "by age");
+        checkEquals(15, stops.oldest(), "oldest");
+
+        stops.remove(15);
+
+        checkEquals(-100, stops.oldest(), "oldest after removing it");
+        checkEquals(StopSet.NONE, stops.nextAbove(-1), "next above after removing it");
+    }
+
+    private void growsBothWays() {
+        StopSet stops = new StopSet();
+
+        stops.add(3);
+        stops.add(500);
+        stops.add(-500);
+        stops.add(3);
+
+        checkEquals(3, stops.size(), "size");
+        checkStops(new int[] { -500, 3, 500 }, stops.toArray(), "ascending");
+        checkStops(new int[] { 3, 500, -500 }, stops.toArrayByAge(), "by age");
+
+        // Requesting a floor again makes it the newest
+        stops.remove(3);
+        stops.add(3);
+
+        checkStops(new int[] { 500, -500, 3 }, stops.toArrayByAge(), "by age after a new request");
+
+        stops.clear();
+
+        check(stops.isEmpty(), "empty after clear");
+        checkEquals(StopSet.NONE, stops.lowest(), "lowest of an empty set");
+        checkEquals(StopSet.NONE, stops.oldest(), "oldest of an empty set");
+    }
+
+    @Override
+    public void run() {
+        growsUp();
+        growsDown();
+        growsBothWays();
+    }
+
+}
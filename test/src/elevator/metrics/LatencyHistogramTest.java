@@ -0,0 +1,67 @@
+package elevator.metrics;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks the percentiles of the histogram: exact for small values, within
+ * the bucket precision for large ones
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    private static final int VALUES = 100000;
+
+    private void countsSmallValuesExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+
+        histogram.record(-1);
+
+        checkEquals(50, histogram.getCount(), "count without the negative value");
+        checkEquals(1, histogram.getPercentile(0), "p0");
+        checkEquals(25, histogram.getPercentile(50), "p50");
+        checkEquals(45, histogram.getPercentile(90), "p90");
+        checkEquals(50, histogram.getPercentile(100), "p100");
+        check(histogram.getMean() == 25.5, "mean " + histogram.getMean());
+    }
+
+    private void boundsTheError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int value = 1; value <= VALUES; value++) {
+            histogram.record(value);
+        }
+
+        for (double percentile : new double[] { 10, 50, 90, 99, 99.9 }) {
+            long exact = (long) Math.ceil(percentile / 100 * VALUES),
+                    value = histogram.getPercentile(percentile);
+
+            check(value >= exact && value <= exact * 1.035,
+                    String.format("p%s: %d for %d", percentile, value, exact));
+        }
+
+        checkEquals(VALUES, histogram.getPercentile(100), "p100 is the max");
+        checkEquals(VALUES, histogram.getMax(), "max");
+    }
+
+    private void clampsHugeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(Long.MAX_VALUE);
+
+        // The max is kept, the percentiles end at the last bucket
+        checkEquals(Long.MAX_VALUE, histogram.getMax(), "max of a huge value");
+        check(histogram.getPercentile(50) >= 1L << 40, "p50 of a huge value " + histogram.getPercentile(50));
+        checkEquals(0, new LatencyHistogram().getPercentile(50), "p50 of an empty histogram");
+    }
+
+    @Override
+    public void run() {
+        countsSmallValuesExactly();
+        boundsTheError();
+        clampsHugeValues();
+    }
+
+}
@@ -0,0 +1,99 @@
+package elevator.metrics;
+
+import elevator.elevator.Elevator;
+import elevator.elevator.ElevatorDispatcher;
+import elevator.elevator.ElevatorEventRing;
+import elevator.elevator.ElevatorQueuer;
+import elevator.elevator.Person;
+import elevator.test.TestCase;
+
+/**
+ * Checks that a trip is recorded in the wait and ride times of its origin
+ * floor and of its elevator, from listeners and from an event ring
+ */
+public class TripMetricsTest extends TestCase {
+
+    /**
+     * Rides a person from floor 1 to floor 3
+     *
+     * @param elevator Elevator, at floor 1
+     * @param ring Event ring of the elevator, null if none
+     */
+    private static void ride(Elevator elevator, ElevatorEventRing ring) {
+        ElevatorQueuer queuer = new ElevatorQueuer(elevator);
+
+        if (ring != null) {
+            queuer.consume(ring);
+        }
+
+        queuer.queue(new Person(70, 1, 3));
+
+        for (int i = 0; i < 10 && elevator.step() != Elevator.IDLE; i++) {
+            if (ring != null) {
+                ring.poll();
+            }
+        }
+    }
+
+    /**
+     * Creates an elevator at floor 1, notifying its listeners on the
+     * stepping thread
+     *
+     * @param name Name
+     * @return Elevator
+     */
+    private static Elevator elevator(String name) {
+        Elevator elevator = new Elevator(1, name);
+
+        elevator.setFloorRange(0, 9);
+        elevator.setDispatcher(new ElevatorDispatcher(name, 0));
+
+        return elevator;
+    }
+
+    /**
+     * Fails the test unless a trip was recorded from floor 1 with the given
+     * elevator, and nothing for its target floor
+     *
+     * @param metrics Metrics
+     * @param name Elevator name
+     */
+    private static void checkTrip(TripMetrics metrics, String name) {
+        checkEquals(1, metrics.getWaitTimes(1).getCount(), "waits at the origin floor");
+        checkEquals(1, metrics.getWaitTimes(name).getCount(), "waits for the elevator");
+        checkEquals(1, metrics.getRideTimes(1).getCount(), "rides from the origin floor");
+        checkEquals(1, metrics.getRideTimes(name).getCount(), "rides with the elevator");
+        checkEquals(0, metrics.getWaitTimes(3).getCount(), "waits at the target floor");
+        checkEquals(0, metrics.getRideTimes(3).getCount(), "rides from the target floor");
+        checkEquals(1, metrics.getRideTimes().getCount(), "rides");
+    }
+
+    private void recordsFromListeners() {
+        TripMetrics metrics = new TripMetrics();
+        Elevator elevator = elevator("A");
+
+        metrics.attach(elevator);
+        ride(elevator, null);
+
+        checkTrip(metrics, "A");
+    }
+
+    private void recordsFromTheRing() {
+        TripMetrics metrics = new TripMetrics();
+        Elevator elevator = elevator("B");
+        ElevatorEventRing ring = new ElevatorEventRing("B", 16);
+
+        elevator.setEventRing(ring);
+        metrics.attach(elevator, ring);
+        ride(elevator, ring);
+
+        checkTrip(metrics, "B");
+    }
+
+    @Override
+    public void run() {
+        recordsFromListeners();
+        recordsFromTheRing();
+    }
+
+}
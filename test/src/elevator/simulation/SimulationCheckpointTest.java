@@ -0,0 +1,79 @@
+package elevator.simulation;
+
+import java.util.Arrays;
+
+import elevator.elevator.ElevatorBank;
+import elevator.traffic.TrafficGenerator;
+import elevator.traffic.TrafficProfile;
+import elevator.test.TestCase;
+
+/**
+ * Checks that a simulation restored from a checkpoint runs on exactly like
+ * the simulation the checkpoint was taken of, with the stops delivered by
+ * listeners and by event rings
+ */
+public class SimulationCheckpointTest extends TestCase {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    /**
+     * Sets up a simulated office morning
+     *
+     * @param ringCapacity Capacity of the event rings, 0 for listeners
+     * @return Simulation
+     */
+    private static Simulation build(int ringCapacity) {
+        Simulation simulation = new Simulation(7);
+        ElevatorBank bank = new ElevatorBank("Bank", 3, 0, 19);
+
+        bank.setMoveDelay(1500);
+        bank.setStopDelay(5000);
+        bank.setMaxPeople(8);
+
+        if (ringCapacity > 0) {
+            bank.setEventRings(ringCapacity);
+        }
+
+        simulation.attach(bank);
+        simulation.addTraffic(new TrafficGenerator(TrafficProfile.officeDay(20), bank, 3));
+
+        return simulation;
+    }
+
+    /**
+     * Runs a simulation past a checkpoint and a restored copy of it side by
+     * side
+     *
+     * @param ringCapacity Capacity of the event rings, 0 for listeners
+     * @throws Exception On failure
+     */
+    private static void restores(int ringCapacity) throws Exception {
+        Simulation original = build(ringCapacity);
+
+        original.runFor(8 * HOUR);
+
+        SimulationCheckpoint checkpoint = original.checkpoint();
+        Simulation restored = build(ringCapacity);
+
+        restored.restore(checkpoint);
+
+        checkEquals(original.currentTimeMillis(), restored.currentTimeMillis(), "time after restoring");
+        check(Arrays.equals(checkpoint.getData(), restored.checkpoint().getData()),
+                "checkpoint of the restored simulation");
+
+        original.runFor(2 * HOUR);
+        restored.runFor(2 * HOUR);
+
+        check(original.getProcessedEvents() > 0, "events processed");
+        checkEquals(original.getProcessedEvents(), restored.getProcessedEvents(), "processed events");
+        check(Arrays.equals(original.checkpoint().getData(), restored.checkpoint().getData()),
+                "checkpoint after running on");
+    }
+
+    @Override
+    public void run() throws Exception {
+        restores(0);
+        restores(16);
+    }
+
+}
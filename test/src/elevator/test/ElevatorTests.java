@@ -0,0 +1,45 @@
+package elevator.test;
+
+import elevator.elevator.AtomicStopSetTest;
+import elevator.elevator.DemandPredictorTest;
+import elevator.elevator.ElevatorBankTest;
+import elevator.elevator.ElevatorDispatcherTest;
+import elevator.elevator.ElevatorEventRingTest;
+import elevator.elevator.ElevatorQueuerTest;
+import elevator.elevator.ExecutionModeTest;
+import elevator.elevator.StopSetTest;
+import elevator.metrics.LatencyHistogramTest;
+import elevator.metrics.TripMetricsTest;
+import elevator.simulation.SimulationCheckpointTest;
+import elevator.trace.JournalBufferTest;
+import elevator.traffic.TrafficProfileTest;
+
+/**
+ * Test suite of the elevator core, exits with status 1 if a test fails
+ *
+ * Usage: ElevatorTests
+ */
+public class ElevatorTests {
+
+    public static void main(String[] args) {
+        TestRunner runner = new TestRunner();
+
+        runner.run("ElevatorDispatcher", ElevatorDispatcherTest::new);
+        runner.run("ElevatorEventRing", ElevatorEventRingTest::new);
+        runner.run("ElevatorQueuer", ElevatorQueuerTest::new);
+        runner.run("ElevatorBank", ElevatorBankTest::new);
+        runner.run("StopSet growth", StopSetTest::new);
+        runner.run("AtomicStopSet", AtomicStopSetTest::new);
+        runner.run("LatencyHistogram", LatencyHistogramTest::new);
+        runner.run("TripMetrics", TripMetricsTest::new);
+        runner.run("TrafficProfile", TrafficProfileTest::new);
+        runner.run("Simulation checkpoint", SimulationCheckpointTest::new);
+        runner.run("JournalBuffer", JournalBufferTest::new);
+        runner.run("DemandPredictor", DemandPredictorTest::new);
+        runner.run("ExecutionMode", ExecutionModeTest::new);
+
+        System.out.println(String.format("%d passed, %d failed", runner.getPassedCount(), runner.getFailures().size()));
+        System.exit(runner.getFailures().isEmpty() ? 0 : 1);
+    }
+
+}
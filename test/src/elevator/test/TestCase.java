@@ -0,0 +1,44 @@
+package elevator.test;
+
+/**
+ * Test run by the test runner
+ *
+ * A test lives in the package of the classes it covers, so that it can
+ * reach their package-private parts. The runner creates a new instance for
+ * every run, a failed check ends the test.
+ */
+public abstract class TestCase {
+
+    /**
+     * Fails the test unless a condition holds
+     *
+     * @param condition Condition
+     * @param message Description of the condition
+     */
+    protected static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Fails the test unless a value is the expected one
+     *
+     * @param expected Expected value
+     * @param actual Actual value
+     * @param message Description of the value
+     */
+    protected static void checkEquals(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(String.format("%s: expected %d, was %d", message, expected, actual));
+        }
+    }
+
+    /**
+     * Runs the test
+     *
+     * @throws Exception On failure
+     */
+    public abstract void run() throws Exception;
+
+}
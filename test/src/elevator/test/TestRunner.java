@@ -0,0 +1,56 @@
+package elevator.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs tests one after the other and reports each of them on standard
+ * output
+ */
+public class TestRunner {
+
+    private final List<String> failures = new ArrayList<>();
+    private int passed;
+
+    /**
+     * Runs a test
+     *
+     * @param name Name of the test
+     * @param factory Creates the test
+     */
+    public void run(String name, Supplier<TestCase> factory) {
+        long start = System.nanoTime();
+
+        try {
+            factory.get().run();
+            passed++;
+
+            System.out.println(String.format("ok   %s (%d ms)", name, (System.nanoTime() - start) / 1000000));
+        } catch (Throwable e) {
+            failures.add(name);
+
+            System.out.println(String.format("FAIL %s", name));
+            e.printStackTrace(System.out);
+        }
+    }
+
+    /**
+     * Gets the amount of passed tests
+     *
+     * @return Passed tests
+     */
+    public int getPassedCount() {
+        return passed;
+    }
+
+    /**
+     * Gets the names of the failed tests
+     *
+     * @return Failed tests, in the order they ran
+     */
+    public List<String> getFailures() {
+        return failures;
+    }
+
+}
@@ -0,0 +1,103 @@
+package elevator.trace;
+
+import java.util.concurrent.CountDownLatch;
+
+import elevator.test.TestCase;
+
+/**
+ * Checks that the journal buffer hands every record to the consumer once,
+ * whole and in the order of its producer, or counts it as dropped
+ */
+public class JournalBufferTest extends TestCase {
+
+    private static final int PRODUCERS = 4;
+    private static final int RECORDS = 50000;
+
+    private void dropsWhenFull() {
+        JournalBuffer buffer = new JournalBuffer(4);
+        long[] record = new long[JournalBuffer.RECORD_LONGS];
+
+        check(buffer.isEmpty(), "empty");
+
+        for (int lap = 0; lap < 10; lap++) {
+            for (int i = 0; i < 4; i++) {
+                check(buffer.offer(lap, i, 0, 0), "queued into a free slot");
+            }
+
+            check(!buffer.offer(lap, 4, 0, 0), "dropped while full");
+
+            for (int i = 0; i < 4; i++) {
+                check(buffer.poll(record), "polled");
+                checkEquals(lap, record[0], "lap");
+                checkEquals(i, record[1], "record of the lap");
+            }
+
+            check(!buffer.poll(record), "nothing left to poll");
+        }
+
+        checkEquals(10, buffer.getDroppedCount(), "dropped");
+    }
+
+    private void racesProducers() throws InterruptedException {
+        JournalBuffer buffer = new JournalBuffer(64);
+        long[] record = new long[JournalBuffer.RECORD_LONGS];
+        long[] last = new long[PRODUCERS];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[PRODUCERS];
+        long received = 0;
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+
+            last[p] = -1;
+            producers[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                // The last two words are derived from the first two, so a
+                // torn record shows
+                for (long i = 0; i < RECORDS; i++) {
+                    buffer.offer(producer, i, i * 31 + producer, ~i);
+                }
+            });
+            producers[p].start();
+        }
+
+        start.countDown();
+
+        boolean producing = true;
+
+        while (producing || !buffer.isEmpty()) {
+            producing = false;
+
+            for (Thread producer : producers) {
+                producing |= producer.isAlive();
+            }
+
+            while (buffer.poll(record)) {
+                int producer = (int) record[0];
+
+                check(record[1] > last[producer], "records of a producer in order");
+                checkEquals(record[1] * 31 + producer, record[2], "third word");
+                checkEquals(~record[1], record[3], "fourth word");
+
+                last[producer] = record[1];
+                received++;
+            }
+
+            Thread.yield();
+        }
+
+        checkEquals((long) PRODUCERS * RECORDS, received + buffer.getDroppedCount(), "received and dropped");
+    }
+
+    @Override
+    public void run() throws InterruptedException {
+        dropsWhenFull();
+        racesProducers();
+    }
+
+}
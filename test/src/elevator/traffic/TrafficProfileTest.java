@@ -0,0 +1,118 @@
+package elevator.traffic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import elevator.elevator.HallCallQueue;
+import elevator.elevator.Person;
+import elevator.test.TestCase;
+
+/**
+ * Checks the phases of the office day and the floors of the trips the
+ * generator draws from the uniform and interfloor profiles
+ */
+public class TrafficProfileTest extends TestCase {
+
+    private static final int FLOORS = 5;
+    private static final int TRIPS = 50000;
+
+    /**
+     * Draws the trips of a profile in a building of FLOORS floors
+     *
+     * @param profile Traffic profile
+     * @param seed Seed
+     * @return Persons in arrival order
+     */
+    private static List<Person> trips(TrafficProfile profile, long seed) {
+        List<Person> persons = new ArrayList<>();
+        TrafficGenerator generator = new TrafficGenerator(profile, new HallCallQueue() {
+
+            @Override
+            public void queue(Person person) {
+                persons.add(person);
+            }
+
+            @Override
+            public int getBottomFloor() {
+                return 0;
+            }
+
+            @Override
+            public int getTopFloor() {
+                return FLOORS - 1;
+            }
+
+        }, seed);
+
+        for (int i = 0; i < TRIPS; i++) {
+            generator.nextInterval();
+            generator.spawn();
+        }
+
+        return persons;
+    }
+
+    private void officeDayPhases() {
+        TrafficProfile profile = TrafficProfile.officeDay(10);
+        long hour = 3600000;
+
+        checkEquals(24 * hour, profile.getDuration(), "duration");
+        check("night".equals(profile.getPhase(3 * hour).getName()), "night at 3:00");
+        check("up-peak".equals(profile.getPhase(8.5 * hour).getName()), "up-peak at 8:30");
+        check("down-peak".equals(profile.getPhase(17.5 * hour).getName()), "down-peak at 17:30");
+        check("night".equals(profile.getPhase(27 * hour).getName()), "repeats the next day");
+        check(profile.getRate(8 * hour) == 10, "peak rate " + profile.getRate(8 * hour));
+        check(profile.getRate(8.5 * hour) == 6.25, "ramped rate " + profile.getRate(8.5 * hour));
+
+        profile.setRepeating(false);
+        check(profile.getPhase(27 * hour) == null, "ended without repeating");
+    }
+
+    private void uniformIncludesTheLobby() {
+        long[] origins = new long[FLOORS], targets = new long[FLOORS];
+
+        for (Person person : trips(TrafficProfile.uniform(60), 1)) {
+            check(person.getFloor() != person.getTargetFloor(), "trip to another floor");
+            origins[person.getFloor()]++;
+            targets[person.getTargetFloor()]++;
+        }
+
+        for (int floor = 0; floor < FLOORS; floor++) {
+            double origin = (double) origins[floor] / TRIPS, target = (double) targets[floor] / TRIPS;
+
+            check(Math.abs(origin - 1.0 / FLOORS) < 0.01, String.format("origin share %.3f of floor %d", origin, floor));
+            check(Math.abs(target - 1.0 / FLOORS) < 0.01, String.format("target share %.3f of floor %d", target, floor));
+        }
+    }
+
+    private void interfloorAvoidsTheLobby() {
+        TrafficProfile profile = TrafficProfile.interfloor(60);
+
+        profile.setLobby(2);
+
+        for (Person person : trips(profile, 1)) {
+            check(person.getFloor() != 2 && person.getTargetFloor() != 2, "trip through the lobby");
+            check(person.getFloor() != person.getTargetFloor(), "trip to another floor");
+        }
+    }
+
+    private void sameSeedSameTrips() {
+        List<Person> first = trips(TrafficProfile.officeDay(10), 7), second = trips(TrafficProfile.officeDay(10), 7);
+
+        for (int i = 0; i < TRIPS; i++) {
+            Person a = first.get(i), b = second.get(i);
+
+            check(a.getFloor() == b.getFloor() && a.getTargetFloor() == b.getTargetFloor()
+                    && a.getWeight() == b.getWeight(), "same trip " + i);
+        }
+    }
+
+    @Override
+    public void run() {
+        officeDayPhases();
+        uniformIncludesTheLobby();
+        interfloorAvoidsTheLobby();
+        sameSeedSameTrips();
+    }
+
+}